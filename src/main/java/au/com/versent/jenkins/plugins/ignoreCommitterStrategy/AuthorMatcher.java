@@ -0,0 +1,541 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable set of ignored author rules, compiled once when the configuration is loaded.
+ * <p>
+ * Rules are separated by commas or new lines and matched ignoring case and surrounding whitespace:
+ * <ul>
+ *     <li>{@code bot@example.com} matches that address</li>
+ *     <li>{@code @example.com} matches any address of that domain or of its subdomains</li>
+ *     <li>{@code svc-*@example.com}, {@code renovate[bot]@*} are globs, where {@code *} matches any sequence and
+ *     {@code ?} any single character, every other character being literal</li>
+ *     <li>{@code /ci-\d{2,3}@example\.com/} is a regular expression, which may contain commas</li>
+ * </ul>
+ * Rules are indexed so that checking an author does not depend on how many there are: exact addresses and the local
+ * parts of {@code name@*} globs are looked up in hash tables, domains of {@code @domain} and {@code *@domain} rules in
+ * a trie of reversed domains, and the globs on the local part of a given domain are combined into one pattern per
+ * domain. Only the remaining globs are combined into a single pattern tried on every author, and regular expressions
+ * are tried one by one, since their groups and back references only make sense within their own rule. Lookups in the
+ * tables and the trie work on the candidate in place and allocate nothing.
+ */
+final class AuthorMatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(AuthorMatcher.class.getName());
+
+    static final AuthorMatcher EMPTY = new AuthorMatcher(new String[0]);
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+    /**
+     * Normalized rules in configuration order, used for display only.
+     */
+    private final String[] entries;
+
+    private final int hashCode;
+
+    private final Table exact;
+
+    /** Local parts of {@code name@*} globs. */
+    private final Table localParts;
+
+    /** Domains of {@code @domain} and {@code *@domain} rules. */
+    @CheckForNull
+    private final DomainTrie domains;
+
+    /** Globs on the local part of {@code glob@domain} rules, combined per domain. */
+    private final Table domainGlobs;
+
+    /** Remaining globs, combined. */
+    @CheckForNull
+    private final Pattern combined;
+
+    /** Regular expressions, each compiled on its own. */
+    private final Pattern[] regexes;
+
+    private final boolean byDomain;
+
+    private AuthorMatcher(String[] entries) {
+        this.entries = entries;
+        this.hashCode = Arrays.hashCode(entries);
+
+        List<String> exactEntries = new ArrayList<>();
+        List<String> localEntries = new ArrayList<>();
+        Map<String, StringBuilder> globsByDomain = new LinkedHashMap<>();
+        DomainTrie trie = new DomainTrie();
+        StringBuilder others = new StringBuilder();
+        List<Pattern> regexEntries = new ArrayList<>();
+        for (String entry : entries) {
+            if (isRegex(entry)) {
+                regexEntries.add(Pattern.compile(entry.substring(1, entry.length() - 1), FLAGS));
+                continue;
+            }
+            if (!isGlob(entry)) {
+                if (entry.startsWith("@")) {
+                    trie.add(entry.substring(1), DomainTrie.SUBDOMAINS);
+                } else {
+                    exactEntries.add(entry);
+                }
+                continue;
+            }
+            int at = entry.lastIndexOf('@');
+            String local = at < 0 ? null : entry.substring(0, at);
+            String domain = at < 0 ? null : entry.substring(at + 1);
+            if (domain == null || isGlob(domain) || domain.isEmpty()) {
+                if (local != null && !isGlob(local) && "*".equals(domain)) {
+                    localEntries.add(local);
+                } else {
+                    append(others, globToRegex(entry));
+                }
+            } else if ("*".equals(local)) {
+                trie.add(domain, DomainTrie.EXACT);
+            } else {
+                append(globsByDomain.computeIfAbsent(domain, d -> new StringBuilder()), globToRegex(local));
+            }
+        }
+
+        this.exact = Table.of(exactEntries, null);
+        this.localParts = Table.of(localEntries, null);
+        this.domains = trie.isEmpty() ? null : trie;
+        List<Object> patterns = new ArrayList<>();
+        for (StringBuilder globs : globsByDomain.values()) {
+            patterns.add(Pattern.compile(globs.toString(), FLAGS));
+        }
+        this.domainGlobs = Table.of(new ArrayList<>(globsByDomain.keySet()), patterns);
+        this.combined = others.length() == 0 ? null : Pattern.compile(others.toString(), FLAGS);
+        this.regexes = regexEntries.toArray(new Pattern[0]);
+        this.byDomain = localParts.size() > 0 || domains != null || domainGlobs.size() > 0;
+    }
+
+    /**
+     * Compile a list of author rules separated by commas or new lines, skipping invalid regular expressions
+     *
+     * @param authors list of rules, may be {@code null}
+     * @return the matcher, never {@code null}
+     */
+    @NonNull
+    static AuthorMatcher compile(@CheckForNull String authors) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String rule : split(authors)) {
+            String error = check(rule);
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Ignoring invalid author rule {0}: {1}", new Object[] {rule, error});
+            } else {
+                normalized.add(isRegex(rule) ? rule : normalize(rule));
+            }
+        }
+        return normalized.isEmpty() ? EMPTY : new AuthorMatcher(normalized.toArray(new String[0]));
+    }
+
+    /**
+     * Check the rules of a list separated by commas or new lines
+     *
+     * @return a description of every invalid rule, empty if all are valid
+     */
+    @NonNull
+    static List<String> validate(@CheckForNull String authors) {
+        List<String> errors = new ArrayList<>();
+        for (String rule : split(authors)) {
+            String error = check(rule);
+            if (error != null) {
+                errors.add(rule + ": " + error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Check if an author email matches any rule, ignoring case and surrounding whitespace
+     *
+     * @param email author email, may be {@code null}
+     * @return true if the email matches a rule
+     */
+    boolean matches(@CheckForNull CharSequence email) {
+        if (email == null || entries.length == 0) {
+            return false;
+        }
+        int start = 0;
+        int end = email.length();
+        while (start < end && Character.isWhitespace(email.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(email.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        if (exact.find(email, start, end) >= 0) {
+            return true;
+        }
+        if (byDomain) {
+            int at = end - 1;
+            while (at >= start && email.charAt(at) != '@') {
+                at--;
+            }
+            if (at >= start) {
+                if (localParts.find(email, start, at) >= 0) {
+                    return true;
+                }
+                if (domains != null && domains.matches(email, at + 1, end)) {
+                    return true;
+                }
+                Pattern globs = (Pattern) domainGlobs.get(email, at + 1, end);
+                if (globs != null && globs.matcher(email).region(start, at).matches()) {
+                    return true;
+                }
+            }
+        }
+        if (combined != null && combined.matcher(email).region(start, end).matches()) {
+            return true;
+        }
+        for (Pattern regex : regexes) {
+            if (regex.matcher(email).region(start, end).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of distinct rules
+     */
+    int size() {
+        return entries.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthorMatcher)) {
+            return false;
+        }
+        AuthorMatcher that = (AuthorMatcher) o;
+        return hashCode == that.hashCode && Arrays.equals(entries, that.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * @return the normalized rules in configuration order, formatted like a list
+     */
+    @Override
+    public String toString() {
+        return List.of(entries).toString();
+    }
+
+    /**
+     * Trim and lower case an entry the same way {@link #matches(CharSequence)} treats candidates
+     */
+    @NonNull
+    static String normalize(@NonNull String author) {
+        String trimmed = author.trim();
+        StringBuilder sb = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            sb.append(Character.toLowerCase(trimmed.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Split a list on commas and new lines, except within {@code /regex/} rules, dropping empty rules
+     */
+    @NonNull
+    static List<String> split(@CheckForNull String authors) {
+        List<String> rules = new ArrayList<>();
+        if (authors == null) {
+            return rules;
+        }
+        int i = 0;
+        int length = authors.length();
+        while (i < length) {
+            while (i < length && Character.isWhitespace(authors.charAt(i))) {
+                i++;
+            }
+            int end = i;
+            while (end < length && !isSeparator(authors.charAt(end))) {
+                end++;
+            }
+            if (i < length && authors.charAt(i) == '/') {
+                int close = closingSlash(authors, i + 1);
+                int next = close + 1;
+                while (next < length
+                        && !isSeparator(authors.charAt(next))
+                        && Character.isWhitespace(authors.charAt(next))) {
+                    next++;
+                }
+                if (close > 0 && (next == length || isSeparator(authors.charAt(next)))) {
+                    rules.add(authors.substring(i, close + 1));
+                    i = next + 1;
+                    continue;
+                }
+            }
+            String rule = authors.substring(i, end).trim();
+            if (!rule.isEmpty()) {
+                rules.add(rule);
+            }
+            i = end + 1;
+        }
+        return rules;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == '\n' || c == '\r';
+    }
+
+    private static int closingSlash(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '/') {
+                return i;
+            } else if (c == '\n' || c == '\r') {
+                // a regular expression does not span lines
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    @CheckForNull
+    private static String check(@NonNull String rule) {
+        if (isRegex(rule)) {
+            try {
+                Pattern.compile(rule.substring(1, rule.length() - 1));
+            } catch (PatternSyntaxException e) {
+                return e.getDescription();
+            }
+        } else if (rule.equals("@")) {
+            return "domain is missing";
+        }
+        return null;
+    }
+
+    private static boolean isRegex(String rule) {
+        return rule.length() >= 2 && rule.startsWith("/") && rule.endsWith("/");
+    }
+
+    private static boolean isGlob(String rule) {
+        return rule.indexOf('*') >= 0 || rule.indexOf('?') >= 0;
+    }
+
+    private static void append(StringBuilder alternatives, String regex) {
+        if (alternatives.length() > 0) {
+            alternatives.append('|');
+        }
+        alternatives.append("(?:").append(regex).append(')');
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder sb = new StringBuilder(glob.length() + 8);
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                sb.append(".*");
+            } else if (c == '?') {
+                sb.append('.');
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else {
+                // escaping a character that is not a letter is always literal
+                sb.append('\\').append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        // spread the high bits, the table index only uses the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String entry, CharSequence s, int start, int end) {
+        if (entry.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < entry.length(); i++) {
+            if (entry.charAt(i) != Character.toLowerCase(s.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open addressing table of lower case keys, looked up in place ignoring case.
+     */
+    private static final class Table {
+        private final String[] keys;
+        private final Object[] values;
+        private final int mask;
+        private final int size;
+
+        private Table(List<String> entries, @CheckForNull List<Object> values) {
+            int capacity = Integer.highestOneBit(Math.max(4, entries.size() * 2 - 1)) << 1;
+            this.keys = new String[capacity];
+            this.values = values == null ? null : new Object[capacity];
+            this.mask = capacity - 1;
+            this.size = entries.size();
+            for (int e = 0; e < entries.size(); e++) {
+                String entry = entries.get(e);
+                int i = hash(entry, 0, entry.length()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = entry;
+                if (values != null) {
+                    this.values[i] = values.get(e);
+                }
+            }
+        }
+
+        static Table of(List<String> entries, @CheckForNull List<Object> values) {
+            return new Table(entries, values);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the slot of the key, {@code -1} if absent
+         */
+        int find(CharSequence s, int start, int end) {
+            if (size == 0) {
+                return -1;
+            }
+            for (int i = hash(s, start, end) & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (equalsIgnoreCase(keys[i], s, start, end)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @CheckForNull
+        Object get(CharSequence s, int start, int end) {
+            int i = find(s, start, end);
+            return i < 0 ? null : values[i];
+        }
+    }
+
+    /**
+     * Trie of domains read from their last character, so that a domain and all its subdomains share a path.
+     */
+    private static final class DomainTrie {
+        static final byte EXACT = 1;
+        static final byte SUBDOMAINS = 2;
+
+        private final Node root = new Node();
+
+        void add(String domain, byte flag) {
+            Node node = root;
+            for (int i = domain.length() - 1; i >= 0; i--) {
+                node = node.add(domain.charAt(i));
+            }
+            node.flags |= flag;
+        }
+
+        boolean isEmpty() {
+            return root.labels.length == 0;
+        }
+
+        /**
+         * @return true if the domain between {@code start} and {@code end} is a listed domain, or a subdomain of a
+         *     domain listed with its subdomains
+         */
+        boolean matches(CharSequence s, int start, int end) {
+            Node node = root;
+            for (int i = end - 1; i >= start; i--) {
+                node = node.child(Character.toLowerCase(s.charAt(i)));
+                if (node == null) {
+                    return false;
+                }
+                if (i == start) {
+                    return node.flags != 0;
+                }
+                if ((node.flags & SUBDOMAINS) != 0 && s.charAt(i - 1) == '.') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class Node {
+            private char[] labels = new char[0];
+            private Node[] children = new Node[0];
+            private byte flags;
+
+            @CheckForNull
+            Node child(char c) {
+                int i = Arrays.binarySearch(labels, c);
+                return i < 0 ? null : children[i];
+            }
+
+            Node add(char c) {
+                int i = Arrays.binarySearch(labels, c);
+                if (i >= 0) {
+                    return children[i];
+                }
+                i = -i - 1;
+                char[] newLabels = new char[labels.length + 1];
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(labels, 0, newLabels, 0, i);
+                System.arraycopy(children, 0, newChildren, 0, i);
+                newLabels[i] = c;
+                newChildren[i] = new Node();
+                System.arraycopy(labels, i, newLabels, i + 1, labels.length - i);
+                System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+                labels = newLabels;
+                children = newChildren;
+                return newChildren[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import jenkins.scm.api.SCMFileSystem;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Commits of the revision ranges evaluated recently, shared by every branch build strategy of a chain.
+ * <p>
+ * Strategies are chained with the "any" and "all" strategies of the basic branch build strategies plugin, and each of
+ * them is asked about the same {@code (head, lastBuiltRevision, currRevision)} range. The commits of a range are read
+ * once and kept for a short while, so stacking strategies no longer multiplies the cost of reading the changelog.
+ */
+@Restricted(Beta.class)
+public final class ChangelogContext {
+
+    static final int MAX_SIZE = SystemProperties.getInteger(ChangelogContext.class.getName() + ".maxSize", 100);
+
+    static final long TTL_MILLIS = SystemProperties.getLong(
+            ChangelogContext.class.getName() + ".ttlMillis", TimeUnit.MINUTES.toMillis(1));
+
+    /**
+     * Maximum number of commits kept for a range, longer changelogs are kept truncated and marked as not complete.
+     * Every evaluation collects up to this many commits to share them, which bounds the heap used by the context to
+     * {@link #MAX_SIZE} times this many commits.
+     */
+    static final int MAX_COMMITS =
+            SystemProperties.getInteger(ChangelogContext.class.getName() + ".maxCommits", 500);
+
+    private static final ChangelogContext INSTANCE = new ChangelogContext(MAX_SIZE, TTL_MILLIS);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+
+    ChangelogContext(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ChangelogContext.this.maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    public static ChangelogContext get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Read the commits of a range, or reuse them if another strategy read them recently
+     *
+     * @param lastBuiltRevision excluded revision, {@code null} to read the whole history of the head
+     * @return the commits of the range
+     * @throws IOException if the changelog could not be read, or a revision does not name a commit
+     */
+    @NonNull
+    public Changelog fetch(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @CheckForNull SCMRevision lastBuiltRevision)
+            throws IOException, InterruptedException {
+        String tip = IgnoreCommitterStrategy.tip(source, head, currRevision, TaskListener.NULL);
+        SCMRevision since = lastBuiltRevision == null
+                ? null
+                : IgnoreCommitterStrategy.gitRevision(source, head, lastBuiltRevision, TaskListener.NULL);
+        String sinceId = IgnoreCommitterStrategy.revisionId(since);
+        Changelog changelog = lookup(source, head, sinceId, tip);
+        if (changelog != null && changelog.isComplete()) {
+            return changelog;
+        }
+        try (FileSystemPool.Lease lease = IgnoreCommitterStrategy.lease(source, head, currRevision, tip)) {
+            SCMFileSystem fileSystem = IgnoreCommitterStrategy.fileSystem(lease, tip, sinceId);
+            if (fileSystem == null) {
+                throw new IOException("Error retrieving SCMFileSystem");
+            }
+            List<Commit> commits = new ArrayList<>();
+            CommitScan<Boolean> scanner = IgnoreCommitterStrategy.read(
+                    fileSystem,
+                    tip,
+                    since,
+                    (commitId, authorEmail, paths) -> {
+                        commits.add(new Commit(commitId, authorEmail));
+                        // stop once the kept changelog is full, the range is then known to be longer
+                        return commits.size() >= MAX_COMMITS ? Boolean.TRUE : null;
+                    },
+                    0,
+                    0,
+                    IgnoreCommitterStrategy.Traversal.ALL_PARENTS,
+                    new EvaluationMetrics.Timings());
+            return publish(source, head, sinceId, tip, commits, scanner.getDecision() == null);
+        }
+    }
+
+    /**
+     * @param sinceId excluded commit, {@code null} for the whole history
+     * @return the commits of the range read recently, {@code null} if there are none
+     */
+    @CheckForNull
+    Changelog lookup(
+            @NonNull SCMSource source, @NonNull SCMHead head, @CheckForNull String sinceId, @NonNull String tip) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        Key key = new Key(source.getId(), head.getName(), sinceId, tip);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.created < ttlNanos) {
+                return entry.changelog;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        // ranges between two commits never change, they may have been read before a restart
+        List<Commit> stored = sinceId == null ? null : DecisionStore.get().lookupChangelog(key.toString());
+        if (stored == null) {
+            return null;
+        }
+        Changelog changelog = new Changelog(stored, true);
+        synchronized (entries) {
+            entries.put(key, new Entry(changelog, System.nanoTime()));
+        }
+        return changelog;
+    }
+
+    /**
+     * Share the commits read for a range, unless more of it is known already
+     *
+     * @param commits commits read, newest first
+     * @param complete whether these are all the commits of the range
+     * @return the changelog now known for the range
+     */
+    @NonNull
+    Changelog publish(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @CheckForNull String sinceId,
+            @NonNull String tip,
+            @NonNull List<Commit> commits,
+            boolean complete) {
+        Changelog changelog = new Changelog(commits, complete);
+        if (maxSize <= 0) {
+            return changelog;
+        }
+        Key key = new Key(source.getId(), head.getName(), sinceId, tip);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null
+                    && System.nanoTime() - entry.created < ttlNanos
+                    && (entry.changelog.isComplete()
+                            || !complete && entry.changelog.getCommits().size() >= commits.size())) {
+                return entry.changelog;
+            }
+            entries.put(key, new Entry(changelog, System.nanoTime()));
+        }
+        if (complete && sinceId != null) {
+            DecisionStore.get().storeChangelog(key.toString(), commits);
+        }
+        return changelog;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A commit of a changelog.
+     */
+    public static final class Commit {
+        private final String id;
+        private final String authorEmail;
+
+        @CheckForNull
+        private final List<String> paths;
+
+        public Commit(@NonNull String id, @CheckForNull String authorEmail) {
+            this(id, authorEmail, null);
+        }
+
+        /**
+         * @param paths paths changed by the commit, {@code null} if they were not read
+         */
+        public Commit(@NonNull String id, @CheckForNull String authorEmail, @CheckForNull List<String> paths) {
+            this.id = id;
+            this.authorEmail = authorEmail;
+            this.paths = paths == null ? null : Collections.unmodifiableList(paths);
+        }
+
+        @NonNull
+        public String getId() {
+            return id;
+        }
+
+        @CheckForNull
+        public String getAuthorEmail() {
+            return authorEmail;
+        }
+
+        /**
+         * @return paths changed by the commit, {@code null} if they were not read
+         */
+        @CheckForNull
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        @Override
+        public String toString() {
+            return id + " " + authorEmail;
+        }
+    }
+
+    /**
+     * Commits of a range, newest first, merge commits excluded.
+     */
+    public static final class Changelog {
+        private final List<Commit> commits;
+        private final boolean complete;
+
+        Changelog(@NonNull List<Commit> commits, boolean complete) {
+            this.commits = Collections.unmodifiableList(commits);
+            this.complete = complete;
+        }
+
+        /**
+         * @return the commits read, only the newest ones if the changelog is not complete
+         */
+        @NonNull
+        public List<Commit> getCommits() {
+            return commits;
+        }
+
+        /**
+         * @return whether all the commits of the range were read
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Scan the commits again with another visitor, as if they were read from the repository. Commits whose paths
+         * were not read report none.
+         *
+         * @param maxCommits maximum number of commits handed to the visitor, {@code 0} for no limit
+         * @return the finished scan, {@code null} if it needs commits that were not read
+         */
+        @CheckForNull
+        <D> CommitScan<D> replay(@NonNull CommitScan.Visitor<D> visitor, int maxCommits) {
+            int count = 0;
+            for (Commit commit : commits) {
+                if (maxCommits > 0 && count >= maxCommits) {
+                    return new Replay<>(null, CommitScan.Limit.COMMITS, count);
+                }
+                count++;
+                D decision = visitor.visit(
+                        commit.getId(),
+                        commit.getAuthorEmail(),
+                        () -> commit.getPaths() == null ? Collections.emptyList() : commit.getPaths());
+                if (decision != null) {
+                    return new Replay<>(decision, null, count);
+                }
+            }
+            return complete ? new Replay<>(null, null, count) : null;
+        }
+    }
+
+    private static final class Replay<D> implements CommitScan<D> {
+        private final D decision;
+        private final Limit limitReached;
+        private final int commits;
+
+        private Replay(@CheckForNull D decision, @CheckForNull Limit limitReached, int commits) {
+            this.decision = decision;
+            this.limitReached = limitReached;
+            this.commits = commits;
+        }
+
+        @Override
+        @CheckForNull
+        public D getDecision() {
+            return decision;
+        }
+
+        @Override
+        @CheckForNull
+        public Limit getLimitReached() {
+            return limitReached;
+        }
+
+        @Override
+        public int getCommits() {
+            return commits;
+        }
+
+        @Override
+        public long getBytes() {
+            return 0;
+        }
+
+        @Override
+        public long getParseNanos() {
+            return 0;
+        }
+    }
+
+    private static final class Entry {
+        private final Changelog changelog;
+        private final long created;
+
+        private Entry(Changelog changelog, long created) {
+            this.changelog = changelog;
+            this.created = created;
+        }
+    }
+
+    /**
+     * Identifies a revision range, whatever the strategy evaluating it.
+     */
+    private static final class Key {
+        private final String sourceId;
+        private final String head;
+        private final String since;
+        private final String tip;
+
+        private Key(@NonNull String sourceId, @NonNull String head, @CheckForNull String since, @NonNull String tip) {
+            this.sourceId = sourceId;
+            this.head = head;
+            this.since = since;
+            this.tip = tip;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return sourceId.equals(that.sourceId)
+                    && head.equals(that.head)
+                    && Objects.equals(since, that.since)
+                    && tip.equals(that.tip);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceId, head, since, tip);
+        }
+
+        @Override
+        public String toString() {
+            return sourceId + "/" + head + ":" + since + ".." + tip;
+        }
+    }
+}
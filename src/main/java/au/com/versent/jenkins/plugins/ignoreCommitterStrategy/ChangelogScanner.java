@@ -0,0 +1,246 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.plugins.git.GitChangeSet;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Parses a raw git changelog while it is being written, one commit at a time.
+ * <p>
+ * Each complete commit is turned into a {@link GitChangeSet} and handed to the visitor. As soon as the visitor returns
+ * a decision, or one of the scan limits is reached, any further output is rejected with {@link ScanStoppedException},
+ * which aborts the producer instead of buffering a changelog nobody will look at. Only the lines of the current commit
+ * are held in memory.
+ *
+ * @param <D> type of the decision returned by the visitor
+ */
+final class ChangelogScanner<D> extends OutputStream implements CommitScan<D> {
+
+    /**
+     * Same cap as {@link hudson.plugins.git.GitChangeLogParser} applies to the number of lines kept per commit.
+     */
+    private static final int MAX_LINES_PER_COMMIT = 1000;
+
+    private final Function<GitChangeSet, D> visitor;
+    private final int maxCommits;
+    private final long maxBytes;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private final List<String> commitLines = new ArrayList<>();
+
+    @CheckForNull
+    private D decision;
+
+    @CheckForNull
+    private Limit limitReached;
+
+    private int commits;
+    private long bytes;
+    private long parseNanos;
+    private boolean closed;
+
+    /**
+     * @param visitor called for every commit in changelog order, returns the decision or {@code null} to continue
+     */
+    ChangelogScanner(@NonNull Function<GitChangeSet, D> visitor) {
+        this(visitor, 0, 0);
+    }
+
+    /**
+     * @param visitor called for every commit in changelog order, returns the decision or {@code null} to continue
+     * @param maxCommits maximum number of commits handed to the visitor, {@code 0} for no limit
+     * @param maxBytes maximum number of changelog bytes read, {@code 0} for no limit
+     */
+    ChangelogScanner(@NonNull Function<GitChangeSet, D> visitor, int maxCommits, long maxBytes) {
+        this.visitor = visitor;
+        this.maxCommits = maxCommits;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (maxBytes > 0 && bytes >= maxBytes) {
+            stop(Limit.BYTES);
+        }
+        bytes++;
+        if (b == '\n') {
+            endOfLine();
+        } else {
+            line.write(b);
+        }
+    }
+
+    @Override
+    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        int start = off;
+        int end = off + len;
+        if (maxBytes > 0 && bytes + len > maxBytes) {
+            // only hand over the part of the buffer that fits, the partial commit at the end is dropped
+            end = off + (int) (maxBytes - bytes);
+        }
+        bytes += end - off;
+        for (int i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                line.write(b, start, i - start);
+                endOfLine();
+                if (isStopped()) {
+                    throw new ScanStoppedException();
+                }
+                start = i + 1;
+            }
+        }
+        line.write(b, start, end - start);
+        if (end < off + len) {
+            stop(Limit.BYTES);
+        }
+    }
+
+    /**
+     * Flushes the last commit of the changelog to the visitor, unless the scan was already stopped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!isStopped()) {
+            if (line.size() > 0) {
+                endOfLine();
+            }
+            endOfCommit();
+            // the changelog ended with the last allowed commit, nothing was left out
+            limitReached = null;
+        }
+    }
+
+    @Override
+    @CheckForNull
+    public D getDecision() {
+        return decision;
+    }
+
+    @Override
+    @CheckForNull
+    public Limit getLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * @return {@code true} once no more output will be accepted, either because of a decision or a limit
+     */
+    boolean isStopped() {
+        return decision != null || limitReached != null;
+    }
+
+    @Override
+    public int getCommits() {
+        return commits;
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    private void stop(Limit limit) throws ScanStoppedException {
+        // the commit being read is incomplete, it is not handed to the visitor
+        line.reset();
+        commitLines.clear();
+        limitReached = limit;
+        throw new ScanStoppedException();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (isStopped()) {
+            throw new ScanStoppedException();
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Changelog scan was cancelled");
+        }
+        if (closed) {
+            throw new IOException("Changelog scanner is closed");
+        }
+    }
+
+    private void endOfLine() {
+        int length = line.size();
+        String text = line.toString(StandardCharsets.UTF_8);
+        line.reset();
+        if (length > 0 && text.charAt(text.length() - 1) == '\r') {
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.startsWith("commit ")) {
+            endOfCommit();
+            if (isStopped()) {
+                return;
+            }
+        }
+        if (commitLines.size() < MAX_LINES_PER_COMMIT) {
+            commitLines.add(text);
+        }
+    }
+
+    private void endOfCommit() {
+        if (commitLines.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        GitChangeSet changeSet = new GitChangeSet(new ArrayList<>(commitLines), true);
+        parseNanos += System.nanoTime() - start;
+        commitLines.clear();
+        commits++;
+        decision = visitor.apply(changeSet);
+        if (decision == null && maxCommits > 0 && commits >= maxCommits) {
+            limitReached = Limit.COMMITS;
+        }
+    }
+
+    /**
+     * Thrown into the changelog producer once the remaining output is no longer needed.
+     */
+    static final class ScanStoppedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ScanStoppedException() {
+            super("Changelog scan stopped, remaining output skipped");
+        }
+    }
+}
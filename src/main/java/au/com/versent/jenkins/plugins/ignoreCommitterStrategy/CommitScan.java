@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Outcome of walking the commits of a changeset, whichever engine produced them.
+ *
+ * @param <D> type of the decision returned for a decisive commit
+ */
+interface CommitScan<D> {
+
+    /**
+     * Receives the commits of a changeset, newest first.
+     *
+     * @param <D> type of the decision
+     */
+    @FunctionalInterface
+    interface Visitor<D> {
+
+        /**
+         * @param paths paths changed by the commit, only computed when asked for
+         * @return the decision if this commit settles it, {@code null} if the next commit has to be checked
+         */
+        @CheckForNull
+        D visit(
+                @NonNull String commitId,
+                @CheckForNull String authorEmail,
+                @NonNull Supplier<Collection<String>> paths);
+    }
+
+    /**
+     * Scan limits, the first one reached stops the scan.
+     */
+    enum Limit {
+        COMMITS,
+        BYTES
+    }
+
+    /**
+     * @return the decision for the first decisive commit, or {@code null} if no commit was decisive
+     */
+    @CheckForNull
+    D getDecision();
+
+    /**
+     * @return the limit that stopped the scan before a decision was reached, or {@code null}
+     */
+    @CheckForNull
+    Limit getLimitReached();
+
+    /**
+     * @return number of commits examined
+     */
+    int getCommits();
+
+    /**
+     * @return number of bytes read
+     */
+    long getBytes();
+
+    /**
+     * @return nanoseconds spent extracting commits and their authors from what was read
+     */
+    long getParseNanos();
+}
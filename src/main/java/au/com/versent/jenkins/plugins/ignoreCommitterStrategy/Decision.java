@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Outcome of an evaluation together with the explanation written to the branch indexing log.
+ */
+final class Decision {
+
+    private final boolean build;
+    private final String reason;
+    private final String commitId;
+
+    private Decision(boolean build, @NonNull String reason, @CheckForNull String commitId) {
+        this.build = build;
+        this.reason = reason;
+        this.commitId = commitId;
+    }
+
+    @NonNull
+    static Decision of(boolean build, @NonNull String format, Object... args) {
+        return new Decision(build, String.format(format, args), null);
+    }
+
+    /**
+     * @return the decision settled by a single commit
+     */
+    @NonNull
+    static Decision ofCommit(boolean build, @CheckForNull String commitId, @NonNull String format, Object... args) {
+        return new Decision(build, String.format(format, args), commitId);
+    }
+
+    /**
+     * @return true if a build is required
+     */
+    boolean isBuild() {
+        return build;
+    }
+
+    /**
+     * @return single line explanation of the decision
+     */
+    @NonNull
+    String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the commit that settled the decision, {@code null} if the whole changeset did or it is not known
+     */
+    @CheckForNull
+    String getCommitId() {
+        return commitId;
+    }
+
+    @Override
+    public String toString() {
+        return reason;
+    }
+}
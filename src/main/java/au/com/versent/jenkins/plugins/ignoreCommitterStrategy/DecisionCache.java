@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.util.SystemProperties;
+
+/**
+ * Bounded LRU cache of decisions, shared by all strategy instances.
+ * <p>
+ * Branch indexing, events and periodic rescans evaluate the same revision range over and over. The decision for a range
+ * only depends on the commits in it and on the strategy configuration, so it can be answered without touching git
+ * until the entry expires.
+ */
+final class DecisionCache {
+
+    static final int MAX_SIZE = SystemProperties.getInteger(DecisionCache.class.getName() + ".maxSize", 10000);
+
+    static final long TTL_MILLIS = SystemProperties.getLong(
+            DecisionCache.class.getName() + ".ttlMillis", TimeUnit.MINUTES.toMillis(30));
+
+    private static final DecisionCache INSTANCE = new DecisionCache(MAX_SIZE, TTL_MILLIS);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    DecisionCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > DecisionCache.this.maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    static DecisionCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the cached decision, or {@code null} if there is none or it expired
+     */
+    @CheckForNull
+    Decision lookup(@NonNull Key key) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.created < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.decision;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Check for a decision without counting a hit or a miss, for callers that only probe the cache
+     *
+     * @return true if there is a decision that has not expired
+     */
+    boolean contains(@NonNull Key key) {
+        if (maxSize <= 0) {
+            return false;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && System.nanoTime() - entry.created < ttlNanos;
+        }
+    }
+
+    void store(@NonNull Key key, @NonNull Decision decision) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(decision, System.nanoTime()));
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Entry {
+        private final Decision decision;
+        private final long created;
+
+        private Entry(Decision decision, long created) {
+            this.decision = decision;
+            this.created = created;
+        }
+    }
+
+    /**
+     * Identifies an evaluated revision range for a given strategy configuration.
+     */
+    static final class Key {
+        private final String sourceId;
+        private final String head;
+        private final String currRevision;
+        private final String lastBuiltRevision;
+        private final int configHash;
+
+        Key(
+                @NonNull String sourceId,
+                @NonNull String head,
+                @NonNull String currRevision,
+                @CheckForNull String lastBuiltRevision,
+                int configHash) {
+            this.sourceId = sourceId;
+            this.head = head;
+            this.currRevision = currRevision;
+            this.lastBuiltRevision = lastBuiltRevision;
+            this.configHash = configHash;
+        }
+
+        int getConfigHash() {
+            return configHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return configHash == that.configHash
+                    && sourceId.equals(that.sourceId)
+                    && head.equals(that.head)
+                    && currRevision.equals(that.currRevision)
+                    && Objects.equals(lastBuiltRevision, that.lastBuiltRevision);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceId, head, currRevision, lastBuiltRevision, configHash);
+        }
+
+        @Override
+        public String toString() {
+            return sourceId + "/" + head + ":" + lastBuiltRevision + ".." + currRevision;
+        }
+    }
+}
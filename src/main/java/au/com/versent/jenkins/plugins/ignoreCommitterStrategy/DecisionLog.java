@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jenkins.util.SystemProperties;
+
+/**
+ * The most recent decisions of every multibranch project, kept in memory as structured records.
+ * <p>
+ * Each project keeps a ring buffer of at most {@link #SIZE} records, and the buffers of the projects that were
+ * evaluated least recently are dropped beyond {@link #MAX_JOBS}. Recording a decision costs a few allocations, unlike
+ * writing the explanation to the indexing log, so the log can be kept quiet on large scans.
+ */
+final class DecisionLog {
+
+    static final int SIZE = SystemProperties.getInteger(DecisionLog.class.getName() + ".size", 100);
+
+    static final int MAX_JOBS = SystemProperties.getInteger(DecisionLog.class.getName() + ".maxJobs", 1000);
+
+    private static final DecisionLog INSTANCE = new DecisionLog(SIZE, MAX_JOBS);
+
+    private final int size;
+    private final int maxJobs;
+    private final Map<String, Deque<Record>> jobs;
+
+    DecisionLog(int size, int maxJobs) {
+        this.size = size;
+        this.maxJobs = maxJobs;
+        this.jobs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<Record>> eldest) {
+                return size() > DecisionLog.this.maxJobs;
+            }
+        };
+    }
+
+    @NonNull
+    static DecisionLog get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Keep a record for a job, dropping its oldest record if its buffer is full
+     *
+     * @param job full name of the multibranch project
+     */
+    void add(@NonNull String job, @NonNull Record record) {
+        if (size <= 0) {
+            return;
+        }
+        synchronized (jobs) {
+            Deque<Record> records = jobs.computeIfAbsent(job, j -> new ArrayDeque<>());
+            if (records.size() >= size) {
+                records.removeFirst();
+            }
+            records.addLast(record);
+        }
+    }
+
+    /**
+     * @return the records of a job, newest first
+     */
+    @NonNull
+    List<Record> getRecords(@NonNull String job) {
+        synchronized (jobs) {
+            Deque<Record> records = jobs.get(job);
+            if (records == null) {
+                return Collections.emptyList();
+            }
+            List<Record> newestFirst = new ArrayList<>(records.size());
+            for (Iterator<Record> it = records.descendingIterator(); it.hasNext(); ) {
+                newestFirst.add(it.next());
+            }
+            return newestFirst;
+        }
+    }
+
+    void clear() {
+        synchronized (jobs) {
+            jobs.clear();
+        }
+    }
+
+    /**
+     * A single decision, with what it took to reach it
+     */
+    static final class Record {
+        private final long timestamp = System.currentTimeMillis();
+        private final String sourceId;
+        private final String head;
+        private final String revision;
+        private final String lastBuiltRevision;
+        private final EvaluationMetrics.Outcome outcome;
+        private final boolean cached;
+        private final String reason;
+        private final String commitId;
+        private final long commits;
+        private final long[] phaseNanos = new long[EvaluationMetrics.Phase.values().length];
+
+        /**
+         * @param decision the decision taken, {@code null} if the evaluation failed or timed out
+         * @param timings measurements of the evaluation, {@code null} if nothing was read
+         */
+        Record(
+                @NonNull String sourceId,
+                @NonNull String head,
+                @CheckForNull String revision,
+                @CheckForNull String lastBuiltRevision,
+                @NonNull EvaluationMetrics.Outcome outcome,
+                boolean cached,
+                @NonNull String reason,
+                @CheckForNull Decision decision,
+                @CheckForNull EvaluationMetrics.Timings timings) {
+            this.sourceId = sourceId;
+            this.head = head;
+            this.revision = revision;
+            this.lastBuiltRevision = lastBuiltRevision;
+            this.outcome = outcome;
+            this.cached = cached;
+            this.reason = reason;
+            this.commitId = decision == null ? null : decision.getCommitId();
+            this.commits = timings == null ? 0 : timings.getCommits();
+            if (timings != null) {
+                for (EvaluationMetrics.Phase phase : EvaluationMetrics.Phase.values()) {
+                    phaseNanos[phase.ordinal()] = timings.get(phase);
+                }
+            }
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        @NonNull
+        String getSourceId() {
+            return sourceId;
+        }
+
+        @NonNull
+        String getHead() {
+            return head;
+        }
+
+        @CheckForNull
+        String getRevision() {
+            return revision;
+        }
+
+        @CheckForNull
+        String getLastBuiltRevision() {
+            return lastBuiltRevision;
+        }
+
+        @NonNull
+        EvaluationMetrics.Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return true if the decision was taken before, and not evaluated again
+         */
+        boolean isCached() {
+            return cached;
+        }
+
+        @NonNull
+        String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return the commit that settled the decision, {@code null} if the whole changeset did
+         */
+        @CheckForNull
+        String getCommitId() {
+            return commitId;
+        }
+
+        /**
+         * @return the number of commits evaluated
+         */
+        long getCommits() {
+            return commits;
+        }
+
+        long getNanos(@NonNull EvaluationMetrics.Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+    }
+}
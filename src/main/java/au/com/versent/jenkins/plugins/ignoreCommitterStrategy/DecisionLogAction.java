@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Item;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.TransientActionFactory;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+/**
+ * Serves the {@link DecisionLog} of a multibranch project as JSON under
+ * {@code /job/<name>/ignore-committer-strategy-decisions/}, newest first, to the users who can see the project.
+ */
+@Restricted(NoExternalUse.class)
+public class DecisionLogAction implements Action {
+
+    private final MultiBranchProject<?, ?> project;
+
+    DecisionLogAction(@NonNull MultiBranchProject<?, ?> project) {
+        this.project = project;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Ignore Committer Strategy decisions";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "ignore-committer-strategy-decisions";
+    }
+
+    public void doIndex(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        project.checkPermission(Item.READ);
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(toJson(DecisionLog.get().getRecords(project.getFullName())).toString(2));
+    }
+
+    static JSONObject toJson(@NonNull List<DecisionLog.Record> records) {
+        JSONArray array = new JSONArray();
+        for (DecisionLog.Record record : records) {
+            array.add(toJson(record));
+        }
+        JSONObject json = new JSONObject();
+        json.put("records", array);
+        return json;
+    }
+
+    private static JSONObject toJson(@NonNull DecisionLog.Record record) {
+        JSONObject phases = new JSONObject();
+        for (EvaluationMetrics.Phase phase : EvaluationMetrics.Phase.values()) {
+            phases.put(phase.getId(), record.getNanos(phase) / 1_000_000.0);
+        }
+        JSONObject json = new JSONObject();
+        json.put("timestamp", record.getTimestamp());
+        json.put("source", record.getSourceId());
+        json.put("head", record.getHead());
+        json.put("revision", record.getRevision());
+        json.put("lastBuiltRevision", record.getLastBuiltRevision());
+        json.put("outcome", record.getOutcome().getId());
+        json.put("cached", record.isCached());
+        json.put("reason", record.getReason());
+        json.put("commit", record.getCommitId());
+        json.put("commits", record.getCommits());
+        json.put("phasesMillis", phases);
+        return json;
+    }
+
+    @Extension
+    @SuppressWarnings("rawtypes")
+    public static class Factory extends TransientActionFactory<MultiBranchProject> {
+
+        @Override
+        public Class<MultiBranchProject> type() {
+            return MultiBranchProject.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull MultiBranchProject target) {
+            return Collections.singletonList(new DecisionLogAction(target));
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Append-only store of decisions and changelogs under {@code JENKINS_HOME}, so that the first scan after a restart
+ * does not read every branch again.
+ * <p>
+ * Only ranges between two commits are stored, as their decision for a given configuration never changes. The store
+ * holds the decision of each evaluated range and configuration, the commits of each fully read range, and the
+ * normalized author of each of these commits. Strategies configured differently replay the stored commits instead of
+ * reading the repository.
+ * <p>
+ * The file is only indexed on first use and record values are read from a memory mapping when looked up. Records are
+ * checksummed, a torn write at the end of the file is dropped when it is indexed, before the file is mapped. Once the
+ * file grows over its maximum size it is compacted in the background into a new generation of the file, keeping the
+ * most recent records, and the store switches to it. A mapped file is thus never truncated nor replaced, it is only
+ * deleted once the store no longer uses it. Records are addressed by {@code int} offsets, so a file that reaches
+ * {@link #MAX_FILE_BYTES} refuses new records until it is compacted.
+ */
+final class DecisionStore {
+
+    private static final Logger LOGGER = Logger.getLogger(DecisionStore.class.getName());
+
+    static final long MAX_BYTES =
+            SystemProperties.getLong(DecisionStore.class.getName() + ".maxMegabytes", 64L) * 1024 * 1024;
+
+    /**
+     * Largest file whose records can all be addressed.
+     */
+    static final long MAX_FILE_BYTES = Integer.MAX_VALUE;
+
+    /**
+     * Longer changelogs are not stored, reading them again is rare enough.
+     */
+    static final int MAX_RANGE_COMMITS =
+            SystemProperties.getInteger(DecisionStore.class.getName() + ".maxRangeCommits", 1000);
+
+    private static final int MAGIC = 0x49435331; // ICS1
+
+    private static final byte COMMIT = 'C';
+    private static final byte RANGE = 'R';
+    private static final byte DECISION = 'D';
+
+    /** Type, length and checksum around each payload. */
+    private static final int OVERHEAD = 1 + 4 + 4;
+
+    private static final int SHA_LENGTH = 20;
+
+    private static volatile DecisionStore instance;
+
+    private final File file;
+    private final long maxBytes;
+    private final long capacity;
+
+    private final Map<ObjectId, Integer> commits = new HashMap<>();
+    private final Map<String, Integer> ranges = new HashMap<>();
+    private final Map<String, Integer> decisions = new HashMap<>();
+
+    @CheckForNull
+    private FileChannel channel;
+
+    @CheckForNull
+    private MappedByteBuffer mapped;
+
+    private int generation;
+    private long end;
+    private boolean loaded;
+    private boolean compacting;
+
+    DecisionStore(@NonNull File file, long maxBytes) {
+        this(file, maxBytes, MAX_FILE_BYTES);
+    }
+
+    /**
+     * @param capacity size the file never grows over, compaction starts at half of it at the latest
+     */
+    DecisionStore(@NonNull File file, long maxBytes, long capacity) {
+        this.file = file;
+        this.capacity = Math.min(capacity, MAX_FILE_BYTES);
+        this.maxBytes = Math.min(maxBytes, this.capacity / 2);
+    }
+
+    @NonNull
+    static DecisionStore get() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        // without a Jenkins home there is nowhere to store anything
+        File file = new File(
+                jenkins == null ? new File(".") : jenkins.getRootDir(), DecisionStore.class.getName() + ".log");
+        DecisionStore store = instance;
+        if (store == null || !store.file.equals(file)) {
+            synchronized (DecisionStore.class) {
+                store = instance;
+                if (store == null || !store.file.equals(file)) {
+                    if (store != null) {
+                        store.close();
+                    }
+                    store = new DecisionStore(file, jenkins == null ? 0 : MAX_BYTES);
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return the stored decision of a range between two commits, {@code null} if there is none
+     */
+    @CheckForNull
+    synchronized Decision lookup(@NonNull DecisionCache.Key key) {
+        Integer offset = open() ? decisions.get(id(key)) : null;
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer record = payload(offset);
+        skipUtf(record);
+        boolean build = record.get() != 0;
+        return Decision.of(build, "%s", utf(record, record.remaining()));
+    }
+
+    synchronized void store(@NonNull DecisionCache.Key key, @NonNull Decision decision) {
+        if (!open()) {
+            return;
+        }
+        String id = id(key);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeUtf(out, id);
+            out.writeBoolean(decision.isBuild());
+            out.write(decision.getReason().getBytes(StandardCharsets.UTF_8));
+            decisions.put(id, append(DECISION, bytes.toByteArray()));
+        } catch (Full e) {
+            LOGGER.log(Level.FINE, e.getMessage());
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * @return the stored commits of a range, newest first, {@code null} if the range was not stored
+     */
+    @CheckForNull
+    synchronized List<ChangelogContext.Commit> lookupChangelog(@NonNull String range) {
+        Integer offset = open() ? ranges.get(range) : null;
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer record = payload(offset);
+        skipUtf(record);
+        int count = record.getInt();
+        List<ChangelogContext.Commit> changelog = new ArrayList<>(count);
+        byte[] sha = new byte[SHA_LENGTH];
+        for (int i = 0; i < count; i++) {
+            record.get(sha);
+            ObjectId id = ObjectId.fromRaw(sha);
+            Integer commit = commits.get(id);
+            if (commit == null) {
+                return null;
+            }
+            ByteBuffer author = payload(commit);
+            author.position(author.position() + SHA_LENGTH);
+            changelog.add(new ChangelogContext.Commit(id.name(), utf(author, author.remaining())));
+        }
+        return changelog;
+    }
+
+    /**
+     * Store all the commits of a range, known commits are not stored again
+     *
+     * @param changelog commits of the range, newest first
+     */
+    synchronized void storeChangelog(@NonNull String range, @NonNull List<ChangelogContext.Commit> changelog) {
+        if (changelog.size() > MAX_RANGE_COMMITS || !open() || ranges.containsKey(range)) {
+            return;
+        }
+        for (ChangelogContext.Commit commit : changelog) {
+            if (!ObjectId.isId(commit.getId())) {
+                return;
+            }
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeUtf(out, range);
+            out.writeInt(changelog.size());
+            for (ChangelogContext.Commit commit : changelog) {
+                ObjectId id = ObjectId.fromString(commit.getId());
+                id.copyRawTo(out);
+                if (!commits.containsKey(id)) {
+                    // commits without an author email are stored with an empty one, which no rule matches either
+                    String email = commit.getAuthorEmail() == null ? "" : commit.getAuthorEmail();
+                    byte[] author = AuthorMatcher.normalize(email).getBytes(StandardCharsets.UTF_8);
+                    ByteBuffer record = ByteBuffer.allocate(SHA_LENGTH + author.length);
+                    id.copyRawTo(record);
+                    record.put(author);
+                    commits.put(id, append(COMMIT, record.array()));
+                }
+            }
+            ranges.put(range, append(RANGE, bytes.toByteArray()));
+        } catch (Full e) {
+            // the commits appended so far are valid records, they are only not referred to yet
+            LOGGER.log(Level.FINE, e.getMessage());
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Drop everything stored
+     */
+    synchronized void clear() {
+        close();
+        loaded = false;
+        for (int stored : generations()) {
+            File generationFile = file(stored);
+            if (generationFile.exists() && !generationFile.delete()) {
+                LOGGER.log(Level.WARNING, "Failed to delete {0}", generationFile);
+            }
+        }
+        generation = 0;
+    }
+
+    synchronized long getSize() {
+        return end;
+    }
+
+    synchronized int getCommitCount() {
+        return open() ? commits.size() : 0;
+    }
+
+    /**
+     * Rewrite the most recent decisions and changelogs, up to half of the maximum size of the store, into the next
+     * generation of the file and switch to it
+     */
+    synchronized void compact() {
+        compacting = false;
+        if (!open()) {
+            return;
+        }
+        File compacted = file(generation + 1);
+        try (FileChannel out = FileChannel.open(
+                compacted.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // the magic number is written last, a generation without it is not used
+            out.write(ByteBuffer.allocate(4));
+            List<Integer> recent = new ArrayList<>(decisions.values());
+            recent.addAll(ranges.values());
+            recent.sort(Comparator.reverseOrder());
+            long budget = maxBytes / 2;
+            Set<ObjectId> kept = new HashSet<>();
+            List<ByteBuffer> records = new ArrayList<>();
+            for (int offset : recent) {
+                ByteBuffer record = record(offset);
+                Set<ObjectId> referenced = new LinkedHashSet<>();
+                if (record.get(0) == RANGE) {
+                    ByteBuffer range = payload(offset);
+                    skipUtf(range);
+                    byte[] sha = new byte[SHA_LENGTH];
+                    for (int i = range.getInt(); i > 0; i--) {
+                        range.get(sha);
+                        ObjectId id = ObjectId.fromRaw(sha);
+                        if (!kept.contains(id)) {
+                            referenced.add(id);
+                        }
+                    }
+                }
+                List<ByteBuffer> needed = new ArrayList<>();
+                for (ObjectId id : referenced) {
+                    needed.add(record(commits.get(id)));
+                }
+                long size = record.remaining();
+                for (ByteBuffer commit : needed) {
+                    size += commit.remaining();
+                }
+                if (size > budget) {
+                    break;
+                }
+                budget -= size;
+                kept.addAll(referenced);
+                records.addAll(needed);
+                records.add(record);
+            }
+            // oldest first, so that commits come before the ranges referring to them
+            for (int i = records.size() - 1; i >= 0; i--) {
+                ByteBuffer record = records.get(i);
+                if (record.get(0) != COMMIT) {
+                    continue;
+                }
+                out.write(record);
+            }
+            for (int i = records.size() - 1; i >= 0; i--) {
+                ByteBuffer record = records.get(i);
+                if (record.get(0) != COMMIT) {
+                    out.write(record);
+                }
+            }
+            out.force(false);
+            out.write(ByteBuffer.allocate(4).putInt(0, MAGIC), 0);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to compact " + file, e);
+            return;
+        }
+        // buffers of the previous generation stay mapped until they are collected, so it is only deleted once the
+        // compacted generation is open
+        close();
+        loaded = false;
+        open();
+        LOGGER.log(Level.FINE, "Compacted {0} to {1} bytes", new Object[] {compacted, end});
+    }
+
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close " + file, e);
+            }
+        }
+        channel = null;
+        mapped = null;
+        commits.clear();
+        ranges.clear();
+        decisions.clear();
+        end = 0;
+    }
+
+    @NonNull
+    private static String id(@NonNull DecisionCache.Key key) {
+        return key + "#" + key.getConfigHash();
+    }
+
+    /**
+     * Index the store on first use
+     *
+     * @return {@code true} if the store can be used
+     */
+    private boolean open() {
+        if (maxBytes <= 0) {
+            return false;
+        }
+        if (loaded) {
+            return channel != null;
+        }
+        loaded = true;
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            generation = 0;
+            for (int stored : generations()) {
+                if (stored > generation && isComplete(file(stored))) {
+                    generation = stored;
+                }
+            }
+            channel = FileChannel.open(
+                    file(generation).toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (channel.size() < 4 || readMagic(channel) != MAGIC) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(4).putInt(0, MAGIC), 0);
+            }
+            end = 4;
+            index();
+            deletePreviousGenerations();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to open " + file + ", decisions are not stored", e);
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * @return the file of a generation of the store, the first generation being the store file itself
+     */
+    @NonNull
+    private File file(int generation) {
+        return generation == 0 ? file : new File(file.getPath() + "." + generation);
+    }
+
+    /**
+     * @return the generations of the store found next to its file
+     */
+    @NonNull
+    private List<Integer> generations() {
+        List<Integer> generations = new ArrayList<>();
+        String[] names = file.getAbsoluteFile().getParentFile().list();
+        if (names == null) {
+            return generations;
+        }
+        Pattern generationName = Pattern.compile(Pattern.quote(file.getName()) + "(?:\\.([1-9][0-9]{0,8}))?");
+        for (String name : names) {
+            Matcher matcher = generationName.matcher(name);
+            if (matcher.matches()) {
+                generations.add(matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1)));
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * @return true if a generation was completely written
+     */
+    private static boolean isComplete(@NonNull File generationFile) {
+        try (FileChannel in = FileChannel.open(generationFile.toPath(), StandardOpenOption.READ)) {
+            return in.size() >= 4 && readMagic(in) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Delete the generations other than the one in use, which fails for a generation that is still mapped on some
+     * platforms, it is then deleted on the next start
+     */
+    private void deletePreviousGenerations() {
+        for (int stored : generations()) {
+            File generationFile = file(stored);
+            if (stored != generation && !generationFile.delete()) {
+                LOGGER.log(Level.FINE, "Failed to delete {0}", generationFile);
+            }
+        }
+    }
+
+    private static int readMagic(@NonNull FileChannel in) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        in.read(magic, 0);
+        return magic.getInt(0);
+    }
+
+    private void map() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    /**
+     * Index every valid record, dropping whatever follows the first invalid one. The file is read through the channel
+     * and only mapped once it is no longer truncated.
+     */
+    private void index() throws IOException {
+        long size = Math.min(channel.size(), capacity);
+        channel.position(end);
+        // not closed, that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        byte[] header = new byte[5];
+        while (end + OVERHEAD <= size) {
+            int offset = (int) end;
+            in.readFully(header);
+            byte type = header[0];
+            int length = ByteBuffer.wrap(header).getInt(1);
+            if (length < 0 || end + OVERHEAD + length > size) {
+                break;
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(header);
+            crc.update(body);
+            if ((int) crc.getValue() != in.readInt()) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.wrap(body);
+            if (type == COMMIT) {
+                byte[] sha = new byte[SHA_LENGTH];
+                payload.get(sha);
+                commits.put(ObjectId.fromRaw(sha), offset);
+            } else if (type == RANGE) {
+                ranges.put(utf(payload), offset);
+            } else if (type == DECISION) {
+                decisions.put(utf(payload), offset);
+            } else {
+                break;
+            }
+            end += OVERHEAD + length;
+        }
+        long dropped = channel.size() - end;
+        if (dropped > 0) {
+            LOGGER.log(
+                    Level.WARNING,
+                    "Dropping {0} invalid bytes at the end of {1}",
+                    new Object[] {dropped, file(generation)});
+            channel.truncate(end);
+        }
+        map();
+    }
+
+    private int append(byte type, @NonNull byte[] payload) throws IOException {
+        if (end + OVERHEAD + payload.length > capacity) {
+            throw new Full(file(generation) + " is full, records are no longer stored until it is compacted");
+        }
+        int offset = (int) end;
+        ByteBuffer record = ByteBuffer.allocate(OVERHEAD + payload.length);
+        record.put(type).putInt(payload.length).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, 5 + payload.length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            end += channel.write(record, end);
+        }
+        if (end > maxBytes && !compacting) {
+            compacting = true;
+            Timer.get().submit(this::compact);
+        }
+        return offset;
+    }
+
+    /**
+     * @return the whole record at the offset, type and checksum included
+     */
+    @NonNull
+    private ByteBuffer record(int offset) {
+        ByteBuffer record = buffer(offset);
+        int length = record.getInt(offset + 1);
+        record.position(offset).limit(offset + OVERHEAD + length);
+        return record.slice();
+    }
+
+    /**
+     * @return the payload of the record at the offset
+     */
+    @NonNull
+    private ByteBuffer payload(int offset) {
+        ByteBuffer record = buffer(offset);
+        int length = record.getInt(offset + 1);
+        record.position(offset + 5).limit(offset + 5 + length);
+        return record.slice();
+    }
+
+    @NonNull
+    private ByteBuffer buffer(int offset) {
+        if (offset + OVERHEAD > mapped.limit() || offset + OVERHEAD + mapped.getInt(offset + 1) > mapped.limit()) {
+            // appended since the file was mapped
+            try {
+                map();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map " + file, e);
+            }
+        }
+        return mapped.duplicate();
+    }
+
+    private void failed(@NonNull IOException e) {
+        LOGGER.log(Level.WARNING, "Failed to write to " + file + ", decisions are no longer stored", e);
+        close();
+    }
+
+    @NonNull
+    private static String utf(@NonNull ByteBuffer buffer) {
+        return utf(buffer, buffer.getShort() & 0xffff);
+    }
+
+    @NonNull
+    private static String utf(@NonNull ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUtf(@NonNull DataOutputStream out, @NonNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) {
+            throw new IOException("Key is too long: " + value.substring(0, 100));
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void skipUtf(@NonNull ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xffff;
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Thrown when a record does not fit in the file any more, which leaves the store usable.
+     */
+    private static final class Full extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private Full(@NonNull String message) {
+            super(message);
+        }
+    }
+}
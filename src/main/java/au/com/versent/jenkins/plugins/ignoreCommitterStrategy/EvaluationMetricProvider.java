@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jenkins.metrics.api.MetricProvider;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Publishes the {@link EvaluationMetrics} over all repositories through the Metrics plugin, when it is installed.
+ * Statistics per repository are only available from {@link EvaluationMetricsAction}, to keep the number of metrics
+ * bounded.
+ */
+@Extension(optional = true)
+@Restricted(NoExternalUse.class)
+public class EvaluationMetricProvider extends MetricProvider {
+
+    private static final String PREFIX = "ignore-committer-strategy.";
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    @NonNull
+    @Override
+    public MetricSet getMetricSet() {
+        return () -> {
+            Map<String, Metric> metrics = new LinkedHashMap<>();
+            for (EvaluationMetrics.Outcome outcome : EvaluationMetrics.Outcome.values()) {
+                metrics.put(
+                        PREFIX + "decisions." + outcome.getId(),
+                        (Gauge<Long>) () -> EvaluationMetrics.get().getCount(outcome));
+            }
+            metrics.put(PREFIX + "cached", (Gauge<Long>) () -> EvaluationMetrics.get().getCached());
+            metrics.put(PREFIX + "timeouts", (Gauge<Long>) () -> EvaluationService.get().getTimeouts());
+            metrics.put(PREFIX + "cache.hits", (Gauge<Long>) () -> DecisionCache.get().getHits());
+            metrics.put(PREFIX + "cache.misses", (Gauge<Long>) () -> DecisionCache.get().getMisses());
+            metrics.put(PREFIX + "evaluations", (Gauge<Long>) () -> all().getEvaluations());
+            metrics.put(PREFIX + "commits", (Gauge<Long>) () -> all().getCommits());
+            metrics.put(PREFIX + "bytes", (Gauge<Long>) () -> all().getBytes());
+            for (EvaluationMetrics.Phase phase : EvaluationMetrics.Phase.values()) {
+                for (double quantile : QUANTILES) {
+                    metrics.put(
+                            PREFIX + "phase." + phase.getId() + ".p" + Math.round(quantile * 100) + ".ms",
+                            (Gauge<Double>) () -> all().getPercentile(phase, quantile));
+                }
+            }
+            return metrics;
+        };
+    }
+
+    @NonNull
+    private static EvaluationMetrics.Snapshot all() {
+        return EvaluationMetrics.get().snapshotAll();
+    }
+}
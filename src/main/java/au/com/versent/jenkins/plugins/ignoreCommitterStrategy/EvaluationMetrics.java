@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import jenkins.util.SystemProperties;
+
+/**
+ * Timings, volumes and outcomes of evaluations, shared by all strategy instances.
+ * <p>
+ * Every evaluation records how long each of its phases took and how much history it read, under the repository it read
+ * from. The last {@link #SAMPLES} evaluations of each repository are kept to compute percentiles, so that the
+ * repositories that make indexing slow stand out.
+ */
+final class EvaluationMetrics {
+
+    static final int SAMPLES =
+            Math.max(1, SystemProperties.getInteger(EvaluationMetrics.class.getName() + ".samples", 1024));
+
+    static final int MAX_REPOSITORIES =
+            SystemProperties.getInteger(EvaluationMetrics.class.getName() + ".maxRepositories", 1000);
+
+    /**
+     * Key of the statistics over all repositories.
+     */
+    static final String ALL = "*";
+
+    /**
+     * User information of a URL, up to the last {@code @} of its authority.
+     */
+    private static final Pattern USER_INFO = Pattern.compile("^([A-Za-z][A-Za-z0-9+.-]*://)[^/]*@");
+
+    private static final EvaluationMetrics INSTANCE = new EvaluationMetrics(SAMPLES, MAX_REPOSITORIES);
+
+    private final int samples;
+    private final int maxRepositories;
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final LongAdder cached = new LongAdder();
+    private final Stats all;
+    private final Map<String, Stats> repositories;
+
+    EvaluationMetrics(int samples, int maxRepositories) {
+        this.samples = samples;
+        this.maxRepositories = maxRepositories;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+        this.all = new Stats(samples);
+        this.repositories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stats> eldest) {
+                return size() > EvaluationMetrics.this.maxRepositories;
+            }
+        };
+    }
+
+    @NonNull
+    static EvaluationMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Phases of an evaluation.
+     */
+    enum Phase {
+        /** Building or acquiring the file system of the head. */
+        FILE_SYSTEM("fileSystem"),
+        /** Producing the history, excluding the time spent parsing and matching it. */
+        CHANGES_SINCE("changesSince"),
+        /** Extracting the commits and their authors from the history. */
+        PARSE("parse"),
+        /** Matching the authors against the ignored ones. */
+        MATCH("match");
+
+        private final String id;
+
+        Phase(String id) {
+            this.id = id;
+        }
+
+        @NonNull
+        String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Outcomes of an evaluation.
+     */
+    enum Outcome {
+        BUILD("build"),
+        SKIP("skip"),
+        /** The evaluation failed or timed out and the head was built or skipped without a decision. */
+        ERROR_FALLBACK("errorFallback");
+
+        private final String id;
+
+        Outcome(String id) {
+            this.id = id;
+        }
+
+        @NonNull
+        static Outcome of(boolean build) {
+            return build ? BUILD : SKIP;
+        }
+
+        @NonNull
+        String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Measurements of a single evaluation, only used by the thread running it.
+     */
+    static final class Timings {
+        private final long[] nanos = new long[Phase.values().length];
+        private long bytes;
+        private long commits;
+
+        void add(@NonNull Phase phase, long elapsedNanos) {
+            nanos[phase.ordinal()] += elapsedNanos;
+        }
+
+        /**
+         * Account for a finished scan, the time not spent parsing or matching is spent producing the history
+         *
+         * @param scan the finished scan
+         * @param elapsedNanos time the whole scan took
+         */
+        void scanned(@NonNull CommitScan<?> scan, long elapsedNanos) {
+            add(Phase.PARSE, scan.getParseNanos());
+            add(
+                    Phase.CHANGES_SINCE,
+                    Math.max(0, elapsedNanos - scan.getParseNanos() - nanos[Phase.MATCH.ordinal()]));
+            bytes += scan.getBytes();
+            commits += scan.getCommits();
+        }
+
+        long get(@NonNull Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        long getCommits() {
+            return commits;
+        }
+    }
+
+    /**
+     * Count the outcome of an evaluation
+     */
+    void record(@NonNull Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Count a decision answered from the cache, which is not an evaluation and not counted by outcome
+     */
+    void recordCached() {
+        cached.increment();
+    }
+
+    /**
+     * Record the measurements of an evaluation of a repository
+     */
+    void record(@NonNull String repository, @NonNull Timings timings) {
+        all.add(timings);
+        Stats stats;
+        synchronized (repositories) {
+            stats = repositories.computeIfAbsent(withoutUserInfo(repository), r -> new Stats(samples));
+        }
+        stats.add(timings);
+    }
+
+    /**
+     * @return the remote without the user name and password it may embed, which are not shown with the statistics
+     */
+    @NonNull
+    static String withoutUserInfo(@NonNull String repository) {
+        return USER_INFO.matcher(repository).replaceFirst("$1");
+    }
+
+    long getCount(@NonNull Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    long getCached() {
+        return cached.sum();
+    }
+
+    /**
+     * @return statistics of every repository, and of all of them under {@link #ALL}
+     */
+    @NonNull
+    Map<String, Snapshot> snapshot() {
+        Map<String, Stats> copy;
+        synchronized (repositories) {
+            copy = new LinkedHashMap<>(repositories);
+        }
+        Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        snapshots.put(ALL, all.snapshot());
+        copy.forEach((repository, stats) -> snapshots.put(repository, stats.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * @return statistics over all repositories
+     */
+    @NonNull
+    Snapshot snapshotAll() {
+        return all.snapshot();
+    }
+
+    void clear() {
+        outcomes.values().forEach(LongAdder::reset);
+        cached.reset();
+        all.clear();
+        synchronized (repositories) {
+            repositories.clear();
+        }
+    }
+
+    /**
+     * Reservoir of the last evaluations of a repository.
+     */
+    private static final class Stats {
+        private final long[][] nanos;
+        private int next;
+        private int size;
+        private long evaluations;
+        private long bytes;
+        private long commits;
+
+        Stats(int samples) {
+            this.nanos = new long[Phase.values().length][samples];
+        }
+
+        synchronized void add(@NonNull Timings timings) {
+            for (Phase phase : Phase.values()) {
+                nanos[phase.ordinal()][next] = timings.get(phase);
+            }
+            next = (next + 1) % nanos[0].length;
+            size = Math.min(size + 1, nanos[0].length);
+            evaluations++;
+            bytes += timings.getBytes();
+            commits += timings.getCommits();
+        }
+
+        synchronized void clear() {
+            next = 0;
+            size = 0;
+            evaluations = 0;
+            bytes = 0;
+            commits = 0;
+        }
+
+        synchronized Snapshot snapshot() {
+            long[][] sorted = new long[nanos.length][];
+            for (int i = 0; i < nanos.length; i++) {
+                sorted[i] = Arrays.copyOf(nanos[i], size);
+                Arrays.sort(sorted[i]);
+            }
+            return new Snapshot(sorted, evaluations, bytes, commits);
+        }
+    }
+
+    /**
+     * Statistics of a repository at a point in time.
+     */
+    static final class Snapshot {
+        private final long[][] sorted;
+        private final long evaluations;
+        private final long bytes;
+        private final long commits;
+
+        Snapshot(@NonNull long[][] sorted, long evaluations, long bytes, long commits) {
+            this.sorted = sorted;
+            this.evaluations = evaluations;
+            this.bytes = bytes;
+            this.commits = commits;
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return the duration of the phase below which the given part of the sampled evaluations fall, in
+         *     milliseconds, 0 without samples
+         */
+        double getPercentile(@NonNull Phase phase, double quantile) {
+            long[] values = sorted[phase.ordinal()];
+            if (values.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * values.length) - 1;
+            long value = values[Math.max(0, Math.min(values.length - 1, index))];
+            return value / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        long getEvaluations() {
+            return evaluations;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        long getCommits() {
+            return commits;
+        }
+    }
+}
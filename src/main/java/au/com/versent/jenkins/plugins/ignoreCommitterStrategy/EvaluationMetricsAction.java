@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import java.io.IOException;
+import java.util.Map;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+/**
+ * Serves the {@link EvaluationMetrics} as JSON under {@code /ignore-committer-strategy/}, with percentiles per
+ * repository, to administrators.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class EvaluationMetricsAction implements RootAction {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99, 1.0};
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Ignore Committer Strategy metrics";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "ignore-committer-strategy";
+    }
+
+    public void doIndex(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(toJson(EvaluationMetrics.get()).toString(2));
+    }
+
+    static JSONObject toJson(EvaluationMetrics metrics) {
+        JSONObject decisions = new JSONObject();
+        for (EvaluationMetrics.Outcome outcome : EvaluationMetrics.Outcome.values()) {
+            decisions.put(outcome.getId(), metrics.getCount(outcome));
+        }
+        JSONObject repositories = new JSONObject();
+        for (Map.Entry<String, EvaluationMetrics.Snapshot> entry : metrics.snapshot().entrySet()) {
+            repositories.put(entry.getKey(), toJson(entry.getValue()));
+        }
+        JSONObject json = new JSONObject();
+        json.put("decisions", decisions);
+        json.put("cached", metrics.getCached());
+        json.put("timeouts", EvaluationService.get().getTimeouts());
+        json.put("cache", toJson(DecisionCache.get()));
+        json.put("repositories", repositories);
+        return json;
+    }
+
+    static JSONObject toJson(DecisionCache cache) {
+        JSONObject json = new JSONObject();
+        json.put("hits", cache.getHits());
+        json.put("misses", cache.getMisses());
+        return json;
+    }
+
+    private static JSONObject toJson(EvaluationMetrics.Snapshot snapshot) {
+        JSONObject phases = new JSONObject();
+        for (EvaluationMetrics.Phase phase : EvaluationMetrics.Phase.values()) {
+            JSONObject percentiles = new JSONObject();
+            for (double quantile : QUANTILES) {
+                String name = quantile == 1.0 ? "max" : "p" + Math.round(quantile * 100);
+                percentiles.put(name, snapshot.getPercentile(phase, quantile));
+            }
+            phases.put(phase.getId(), percentiles);
+        }
+        JSONObject json = new JSONObject();
+        json.put("evaluations", snapshot.getEvaluations());
+        json.put("commits", snapshot.getCommits());
+        json.put("bytes", snapshot.getBytes());
+        json.put("phasesMillis", phases);
+        return json;
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Runs evaluations off the calling thread with bounded concurrency, so that the heads of a repository can be evaluated
+ * ahead of the branch API asking for them.
+ * <p>
+ * At most {@link #GLOBAL_LIMIT} evaluations run at once, and at most {@link #REPOSITORY_LIMIT} of them against the
+ * same repository, which keeps the load on the shared git cache bounded. Evaluations of the same revision range are
+ * deduplicated: a caller asking for a range that is already being evaluated consumes the result in flight. The output
+ * of an evaluation is captured and replayed into the listener of whoever consumes it.
+ */
+@Restricted(NoExternalUse.class)
+public final class EvaluationService {
+
+    private static final Logger LOGGER = Logger.getLogger(EvaluationService.class.getName());
+
+    static final int GLOBAL_LIMIT = Math.max(
+            1,
+            SystemProperties.getInteger(
+                    EvaluationService.class.getName() + ".globalLimit",
+                    Runtime.getRuntime().availableProcessors() * 2));
+
+    static final int REPOSITORY_LIMIT =
+            Math.max(1, SystemProperties.getInteger(EvaluationService.class.getName() + ".repositoryLimit", 4));
+
+    /**
+     * Evaluate every changed head of a multibranch project as soon as the first one is asked for.
+     */
+    static /* not final */ boolean PREFETCH =
+            SystemProperties.getBoolean(EvaluationService.class.getName() + ".prefetch");
+
+    private static final EvaluationService INSTANCE = new EvaluationService(GLOBAL_LIMIT, REPOSITORY_LIMIT);
+
+    private static final ThreadLocal<Pending> RUNNING = new ThreadLocal<>();
+
+    private final int repositoryLimit;
+    private final Semaphore global;
+    private final Map<String, Semaphore> repositories = new ConcurrentHashMap<>();
+    private final Map<DecisionCache.Key, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> prefetched = new ConcurrentHashMap<>();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final ExecutorService executor = createExecutor();
+
+    EvaluationService(int globalLimit, int repositoryLimit) {
+        this.global = new Semaphore(globalLimit, true);
+        this.repositoryLimit = repositoryLimit;
+    }
+
+    @NonNull
+    static EvaluationService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * An evaluation writing its explanation to the given listener.
+     */
+    @FunctionalInterface
+    interface Evaluation {
+        boolean evaluate(@NonNull TaskListener listener) throws Exception;
+    }
+
+    /**
+     * Outcome of an evaluation and the output it produced.
+     */
+    static final class Result {
+        private final boolean build;
+        private final byte[] log;
+
+        Result(boolean build, @NonNull byte[] log) {
+            this.build = build;
+            this.log = log;
+        }
+
+        boolean isBuild() {
+            return build;
+        }
+
+        /**
+         * Write the captured output of the evaluation to a listener
+         */
+        void replay(@NonNull TaskListener listener) throws IOException {
+            listener.getLogger().write(log);
+            listener.getLogger().flush();
+        }
+    }
+
+    /**
+     * Submit an evaluation, unless the same range is already being evaluated
+     *
+     * @param key the evaluated range
+     * @param repository key of the repository the evaluation reads from
+     * @return the evaluation in flight for the range
+     */
+    @NonNull
+    Future<Result> submit(@NonNull DecisionCache.Key key, @NonNull String repository, @NonNull Evaluation evaluation) {
+        Pending future = new Pending();
+        Pending existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        Authentication authentication = Jenkins.getAuthentication2();
+        Future<?> task = executor.submit(() -> {
+            try (ACLContext context = ACL.as2(authentication)) {
+                future.complete(run(repository, evaluation, future));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+        // cancelling the evaluation interrupts the thread running it
+        future.whenComplete((result, failure) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return the evaluation in flight for a range, {@code null} if there is none
+     */
+    @CheckForNull
+    Future<Result> inFlight(@NonNull DecisionCache.Key key) {
+        return inFlight.get(key);
+    }
+
+    /**
+     * Claim the prefetch of the heads of a source, at most once per {@link FileSystemPool#IDLE_MILLIS} so that one
+     * indexing pass prefetches once
+     *
+     * @return true if the caller should prefetch
+     */
+    boolean claimPrefetch(@NonNull String sourceId) {
+        long now = System.nanoTime();
+        long window = TimeUnit.MILLISECONDS.toNanos(Math.max(FileSystemPool.IDLE_MILLIS, 1000));
+        boolean[] claimed = {false};
+        prefetched.compute(sourceId, (id, last) -> {
+            if (last == null || now - last > window) {
+                claimed[0] = true;
+                return now;
+            }
+            return last;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Count an evaluation abandoned because it did not finish in time
+     */
+    void recordTimeout(@NonNull DecisionCache.Key key) {
+        timeouts.incrementAndGet();
+        LOGGER.log(Level.WARNING, "Evaluation of {0} timed out", key);
+    }
+
+    /**
+     * @return number of evaluations that timed out
+     */
+    long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return number of evaluations submitted and not finished yet
+     */
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Wait for the result of an evaluation, the timeout counts from when the caller starts waiting and includes the
+     * time the evaluation waits for a free slot, so that a caller never waits for longer than its timeout
+     *
+     * @param timeoutSeconds {@code 0} to wait as long as the evaluation takes
+     * @throws TimeoutException if the evaluation did not finish within the timeout, it is then cancelled unless other
+     *     callers still wait for it
+     */
+    @NonNull
+    Result await(@NonNull Future<Result> evaluation, int timeoutSeconds)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!(evaluation instanceof Pending)) {
+            return timeoutSeconds > 0 ? evaluation.get(timeoutSeconds, TimeUnit.SECONDS) : evaluation.get();
+        }
+        Pending pending = (Pending) evaluation;
+        pending.waiters.incrementAndGet();
+        boolean waiting = true;
+        try {
+            if (timeoutSeconds <= 0) {
+                return pending.get();
+            }
+            try {
+                return pending.get(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                waiting = false;
+                // cancelling interrupts the evaluation, also when it still waits for a permit
+                if (pending.waiters.decrementAndGet() == 0) {
+                    pending.cancel(true);
+                }
+                throw new TimeoutException("Evaluation did not finish within " + timeoutSeconds + " seconds");
+            }
+        } finally {
+            if (waiting) {
+                pending.waiters.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Claim the outcome of the evaluation running on this thread, so that every evaluation is counted once
+     *
+     * @return false if the evaluation was cancelled, the caller that gave up on it counts the outcome instead
+     */
+    static boolean claimOutcome() {
+        Pending pending = RUNNING.get();
+        return pending == null || (!pending.isCancelled() && pending.claimed.compareAndSet(false, true));
+    }
+
+    /**
+     * Claim the outcome of an evaluation the caller gave up on
+     *
+     * @return true if the evaluation was cancelled before it counted its own outcome
+     */
+    static boolean claimOutcome(@NonNull Future<Result> evaluation) {
+        return evaluation.isCancelled()
+                && (!(evaluation instanceof Pending) || ((Pending) evaluation).claimed.compareAndSet(false, true));
+    }
+
+    private Result run(String repository, Evaluation evaluation, Pending pending) throws Exception {
+        Semaphore perRepository = repositories.computeIfAbsent(repository, r -> new Semaphore(repositoryLimit, true));
+        global.acquire();
+        try {
+            perRepository.acquire();
+            try {
+                ByteArrayOutputStream log = new ByteArrayOutputStream();
+                RUNNING.set(pending);
+                try {
+                    boolean build = evaluation.evaluate(new StreamTaskListener(log, StandardCharsets.UTF_8));
+                    return new Result(build, log.toByteArray());
+                } finally {
+                    RUNNING.remove();
+                }
+            } finally {
+                perRepository.release();
+            }
+        } finally {
+            global.release();
+        }
+    }
+
+    /**
+     * An evaluation in flight, with how many callers wait for it and whether its outcome was counted.
+     */
+    private static final class Pending extends CompletableFuture<Result> {
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // virtual threads are cheap to block on git, use them when the JVM has them
+            return (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Virtual threads are not available, using platform threads", e);
+            return Executors.newCachedThreadPool(
+                    new NamingThreadFactory(new DaemonThreadFactory(), "IgnoreCommitterStrategy evaluation"));
+        }
+    }
+
+    @Terminator
+    public static void shutdown() throws InterruptedException {
+        INSTANCE.executor.shutdownNow();
+        INSTANCE.executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.scm.api.SCMFileSystem;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Shares one {@link SCMFileSystem} per repository between the evaluations of an indexing pass.
+ * <p>
+ * Evaluations lease the file system of their repository and release it when done. The first lease builds it, later
+ * ones reuse it, and it is closed once no lease was taken for {@link #IDLE_MILLIS}, which is when the heads of the
+ * repository have all been evaluated. Leases without key are not shared and close their file system on release.
+ */
+@Restricted(NoExternalUse.class)
+public final class FileSystemPool {
+
+    private static final Logger LOGGER = Logger.getLogger(FileSystemPool.class.getName());
+
+    static final long IDLE_MILLIS = SystemProperties.getLong(FileSystemPool.class.getName() + ".idleMillis", 10_000L);
+
+    private static final FileSystemPool INSTANCE = new FileSystemPool(IDLE_MILLIS);
+
+    private final long idleMillis;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong builds = new AtomicLong();
+
+    FileSystemPool(long idleMillis) {
+        this.idleMillis = idleMillis;
+    }
+
+    @NonNull
+    static FileSystemPool get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds the file system of a lease when the pool has none yet.
+     */
+    @FunctionalInterface
+    interface Builder {
+        @CheckForNull
+        SCMFileSystem build() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Lease the file system of a repository
+     *
+     * @param key repository key, {@code null} for a file system that is not shared
+     * @param builder builds the file system if the pool has none for the key
+     * @return the lease, to be closed once the file system is no longer used
+     */
+    @NonNull
+    Lease acquire(@CheckForNull String key, @NonNull Builder builder) {
+        Entry entry;
+        if (key == null || idleMillis <= 0) {
+            entry = new Entry(null);
+            entry.refs = 1;
+        } else {
+            synchronized (entries) {
+                entry = entries.computeIfAbsent(key, Entry::new);
+                entry.refs++;
+                entry.generation++;
+            }
+        }
+        return new Lease(entry, builder);
+    }
+
+    /**
+     * @return number of file systems built by the pool and not closed yet
+     */
+    int getOpenCount() {
+        return open.get();
+    }
+
+    /**
+     * @return number of file systems built by the pool, each of which fetches the repository
+     */
+    long getBuildCount() {
+        return builds.get();
+    }
+
+    /**
+     * Close every idle file system right away
+     */
+    void closeIdle() {
+        List<Entry> idle = new ArrayList<>();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> {
+                if (entry.refs == 0) {
+                    idle.add(entry);
+                    return true;
+                }
+                return false;
+            });
+        }
+        idle.forEach(Entry::close);
+    }
+
+    @Terminator
+    public static void shutdown() {
+        INSTANCE.closeIdle();
+    }
+
+    private void release(Entry entry) {
+        if (entry.key == null) {
+            entry.close();
+            return;
+        }
+        long generation;
+        synchronized (entries) {
+            if (--entry.refs > 0) {
+                return;
+            }
+            generation = entry.generation;
+        }
+        Timer.get().schedule(() -> expire(entry, generation), idleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void expire(Entry entry, long generation) {
+        synchronized (entries) {
+            // leased again since the release, the next release schedules a new expiry
+            if (entry.refs > 0 || entry.generation != generation || entries.get(entry.key) != entry) {
+                return;
+            }
+            entries.remove(entry.key);
+        }
+        entry.close();
+    }
+
+    private final class Entry {
+        private final String key;
+        private int refs;
+        private long generation;
+
+        @CheckForNull
+        private Handle current;
+
+        private Entry(@CheckForNull String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the file system leases of this entry get, built if there is none, {@code null} if it could not be
+         *     built
+         */
+        @CheckForNull
+        private synchronized Handle current(Builder builder) throws IOException, InterruptedException {
+            if (current == null) {
+                current = build(builder);
+            }
+            return current;
+        }
+
+        /**
+         * Build a new file system for the next leases, the previous one is closed once the leases still reading it
+         * are released
+         *
+         * @return the new file system, {@code null} if it could not be built
+         */
+        @CheckForNull
+        private synchronized Handle replace(Builder builder) throws IOException, InterruptedException {
+            Handle previous = current;
+            current = null;
+            if (previous != null) {
+                previous.retire();
+            }
+            current = build(builder);
+            return current;
+        }
+
+        @CheckForNull
+        private Handle build(Builder builder) throws IOException, InterruptedException {
+            SCMFileSystem fileSystem = builder.build();
+            builds.incrementAndGet();
+            if (fileSystem == null) {
+                return null;
+            }
+            open.incrementAndGet();
+            return new Handle(this, fileSystem);
+        }
+
+        private synchronized void close() {
+            if (current != null) {
+                current.retire();
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * A file system of an entry, with the number of leases reading it. Guarded by its entry.
+     */
+    private final class Handle {
+        private final Entry entry;
+        private final SCMFileSystem fileSystem;
+        private int refs;
+        private boolean retired;
+
+        private Handle(Entry entry, SCMFileSystem fileSystem) {
+            this.entry = entry;
+            this.fileSystem = fileSystem;
+        }
+
+        /**
+         * Stop handing this file system out, and close it if no lease reads it
+         */
+        private void retire() {
+            retired = true;
+            closeIfUnused();
+        }
+
+        private void release() {
+            refs--;
+            closeIfUnused();
+        }
+
+        private void closeIfUnused() {
+            if (!retired || refs > 0) {
+                return;
+            }
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close file system of " + entry.key, e);
+            }
+            open.decrementAndGet();
+        }
+    }
+
+    /**
+     * Use of a pooled file system by one evaluation. A lease keeps reading the file system it got even after another
+     * lease refreshed the entry.
+     */
+    final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private final Builder builder;
+        @CheckForNull
+        private Handle handle;
+        private boolean built;
+        private boolean closed;
+
+        private Lease(Entry entry, Builder builder) {
+            this.entry = entry;
+            this.builder = builder;
+        }
+
+        /**
+         * @return the file system of the repository, {@code null} if it could not be built
+         */
+        @CheckForNull
+        SCMFileSystem get() throws IOException, InterruptedException {
+            synchronized (entry) {
+                if (handle == null) {
+                    if (entry.current == null) {
+                        built = true;
+                    }
+                    handle = entry.current(builder);
+                    if (handle != null) {
+                        handle.refs++;
+                    }
+                }
+                return handle == null ? null : handle.fileSystem;
+            }
+        }
+
+        /**
+         * @return true if the file system was built for this lease rather than reused
+         */
+        boolean isBuilt() {
+            return built;
+        }
+
+        /**
+         * Replace the file system with one built for this lease, when the shared one is out of date. Other leases
+         * keep the file system they got until they are released.
+         *
+         * @return the new file system, {@code null} if it could not be built
+         */
+        @CheckForNull
+        SCMFileSystem refresh() throws IOException, InterruptedException {
+            synchronized (entry) {
+                built = true;
+                unpin();
+                handle = entry.replace(builder);
+                if (handle != null) {
+                    handle.refs++;
+                }
+                return handle == null ? null : handle.fileSystem;
+            }
+        }
+
+        private void unpin() {
+            if (handle != null) {
+                handle.release();
+                handle = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                synchronized (entry) {
+                    unpin();
+                }
+                release(entry);
+            }
+        }
+    }
+}
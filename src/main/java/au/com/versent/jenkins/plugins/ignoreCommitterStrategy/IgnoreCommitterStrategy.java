@@ -26,30 +26,87 @@ package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.Util;
+import hudson.model.Job;
+import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.plugins.git.GitChangeLogParser;
-import hudson.plugins.git.GitChangeSet;
 import hudson.scm.SCM;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.Arrays;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import jenkins.branch.Branch;
 import jenkins.branch.BranchBuildStrategy;
 import jenkins.branch.BranchBuildStrategyDescriptor;
+import jenkins.branch.BranchProjectFactory;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.TopLevelItem;
 import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.GitBranchSCMHead;
 import jenkins.plugins.git.GitSCMFileSystem;
 import jenkins.scm.api.*;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
+import jenkins.util.SystemProperties;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
 
 public class IgnoreCommitterStrategy extends BranchBuildStrategy {
+    /**
+     * Walk the commits of git file systems with JGit instead of parsing their textual changelog.
+     */
+    static /* not final */ boolean USE_REV_WALK =
+            !SystemProperties.getBoolean(IgnoreCommitterStrategy.class.getName() + ".disableRevWalk");
+
+    /**
+     * Evaluation timeout of strategies without their own, {@code 0} to wait as long as the evaluation takes.
+     */
+    static /* not final */ int TIMEOUT_SECONDS =
+            SystemProperties.getInteger(IgnoreCommitterStrategy.class.getName() + ".timeoutSeconds", 300);
+
     private final String ignoredAuthors;
     private final Boolean allowBuildIfNotExcludedAuthor;
+    private int maxCommits;
+    private long maxBytes;
+    private LimitFallback commitLimitFallback;
+    private LimitFallback byteLimitFallback;
+    private boolean scanFromMergeBase;
+    private String mergeBaseTarget;
+    private int timeoutSeconds;
+    private Boolean buildOnTimeout;
+    private String ignoredAuthorsList;
+    private String ignoredPaths;
+    private Traversal traversal;
+    private Verbosity verbosity;
+    private transient AuthorMatcher authorMatcher;
+    private transient PathMatcher pathMatcher = PathMatcher.EMPTY;
 
     @DataBoundConstructor
     public IgnoreCommitterStrategy(String ignoredAuthors, Boolean allowBuildIfNotExcludedAuthor) {
         this.ignoredAuthors = ignoredAuthors;
         this.allowBuildIfNotExcludedAuthor = allowBuildIfNotExcludedAuthor;
+        this.authorMatcher = AuthorMatcher.compile(ignoredAuthors);
+    }
+
+    protected Object readResolve() {
+        authorMatcher = AuthorMatcher.compile(ignoredAuthors);
+        pathMatcher = PathMatcher.compile(ignoredPaths);
+        return this;
     }
 
     /**
@@ -61,6 +118,37 @@ public class IgnoreCommitterStrategy extends BranchBuildStrategy {
         return ignoredAuthors;
     }
 
+    /**
+     * Get the name of the shared list of ignored authors, see {@link IgnoredAuthorsConfiguration}
+     *
+     * @return list name, {@code null} if only {@link #getIgnoredAuthors()} is used
+     */
+    @CheckForNull
+    public String getIgnoredAuthorsList() {
+        return ignoredAuthorsList;
+    }
+
+    @DataBoundSetter
+    public void setIgnoredAuthorsList(String ignoredAuthorsList) {
+        this.ignoredAuthorsList = Util.fixEmptyAndTrim(ignoredAuthorsList);
+    }
+
+    /**
+     * Get the paths whose changes are ignored, see {@link PathMatcher}
+     *
+     * @return path rules separated by commas or new lines, {@code null} if no path is ignored
+     */
+    @CheckForNull
+    public String getIgnoredPaths() {
+        return ignoredPaths;
+    }
+
+    @DataBoundSetter
+    public void setIgnoredPaths(String ignoredPaths) {
+        this.ignoredPaths = Util.fixEmptyAndTrim(ignoredPaths);
+        this.pathMatcher = PathMatcher.compile(this.ignoredPaths);
+    }
+
     /**
      * Determine if build is allowed if at least one author in the changeset is not excluded
      * @return indicates if build should be triggered if one of the authors is not in the exclude list
@@ -69,6 +157,151 @@ public class IgnoreCommitterStrategy extends BranchBuildStrategy {
         return allowBuildIfNotExcludedAuthor;
     }
 
+    /**
+     * Get the maximum number of commits scanned per evaluation
+     *
+     * @return maximum number of commits, {@code 0} for no limit
+     */
+    public int getMaxCommits() {
+        return maxCommits;
+    }
+
+    @DataBoundSetter
+    public void setMaxCommits(int maxCommits) {
+        this.maxCommits = Math.max(0, maxCommits);
+    }
+
+    /**
+     * Get the maximum number of changelog bytes scanned per evaluation
+     *
+     * @return maximum number of bytes, {@code 0} for no limit
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @DataBoundSetter
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Get the decision taken when {@link #getMaxCommits()} is reached
+     *
+     * @return fallback decision for the commit limit
+     */
+    @NonNull
+    public LimitFallback getCommitLimitFallback() {
+        return commitLimitFallback == null ? LimitFallback.SCANNED : commitLimitFallback;
+    }
+
+    @DataBoundSetter
+    public void setCommitLimitFallback(LimitFallback commitLimitFallback) {
+        this.commitLimitFallback = commitLimitFallback;
+    }
+
+    /**
+     * Get the decision taken when {@link #getMaxBytes()} is reached
+     *
+     * @return fallback decision for the byte limit
+     */
+    @NonNull
+    public LimitFallback getByteLimitFallback() {
+        return byteLimitFallback == null ? LimitFallback.SCANNED : byteLimitFallback;
+    }
+
+    @DataBoundSetter
+    public void setByteLimitFallback(LimitFallback byteLimitFallback) {
+        this.byteLimitFallback = byteLimitFallback;
+    }
+
+    /**
+     * Determine if the first build of a head only scans the commits since it left its target
+     *
+     * @return true if the merge base with the target is used when there is no last built revision
+     */
+    public boolean isScanFromMergeBase() {
+        return scanFromMergeBase;
+    }
+
+    @DataBoundSetter
+    public void setScanFromMergeBase(boolean scanFromMergeBase) {
+        this.scanFromMergeBase = scanFromMergeBase;
+    }
+
+    /**
+     * Get the branch used as target for heads that are not change requests
+     *
+     * @return target branch name, {@code null} to only use the merge base for change requests
+     */
+    @CheckForNull
+    public String getMergeBaseTarget() {
+        return mergeBaseTarget;
+    }
+
+    @DataBoundSetter
+    public void setMergeBaseTarget(String mergeBaseTarget) {
+        this.mergeBaseTarget = Util.fixEmptyAndTrim(mergeBaseTarget);
+    }
+
+    /**
+     * Get which commits of the range are scanned
+     *
+     * @return traversal of the revision range
+     */
+    @NonNull
+    public Traversal getTraversal() {
+        return traversal == null ? Traversal.ALL_PARENTS : traversal;
+    }
+
+    @DataBoundSetter
+    public void setTraversal(Traversal traversal) {
+        this.traversal = traversal;
+    }
+
+    /**
+     * Get what the evaluations write to the indexing log, every decision is recorded in the {@link DecisionLog} anyway
+     *
+     * @return verbosity of the indexing log
+     */
+    @NonNull
+    public Verbosity getVerbosity() {
+        return verbosity == null ? Verbosity.VERBOSE : verbosity;
+    }
+
+    @DataBoundSetter
+    public void setVerbosity(Verbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+
+    /**
+     * Get the evaluation timeout of this strategy
+     *
+     * @return timeout in seconds, {@code 0} to use the global timeout
+     */
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    @DataBoundSetter
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = Math.max(0, timeoutSeconds);
+    }
+
+    /**
+     * Determine if a build is triggered when the evaluation times out
+     *
+     * @return true to build, false to skip the build when the evaluation times out
+     */
+    public boolean isBuildOnTimeout() {
+        return buildOnTimeout == null || buildOnTimeout;
+    }
+
+    @DataBoundSetter
+    public void setBuildOnTimeout(boolean buildOnTimeout) {
+        this.buildOnTimeout = buildOnTimeout;
+    }
+
     /**
      * Determine if build is required by checking if any of the commit authors is in the ignore list
      * and/or if changesets with at least one non excluded author are allowed
@@ -85,93 +318,903 @@ public class IgnoreCommitterStrategy extends BranchBuildStrategy {
             @CheckForNull SCMRevision lastBuiltRevision,
             @CheckForNull SCMRevision lastSeenRevision,
             @NonNull TaskListener listener) {
-        GitSCMFileSystem.Builder builder = new GitSCMFileSystem.BuilderImpl();
-
         try {
-            SCM scm = source.build(head, currRevision);
             SCMSourceOwner owner = source.getOwner();
 
             if (owner == null) {
                 listener.error("Error retrieving SCMSourceOwner");
+                EvaluationMetrics.get().record(EvaluationMetrics.Outcome.ERROR_FALLBACK);
                 return true;
             }
 
-            SCMFileSystem fileSystem;
-            if (!(currRevision instanceof AbstractGitSCMSource.SCMRevisionImpl)) {
-                fileSystem = builder.build(
-                        source,
-                        head,
-                        new AbstractGitSCMSource.SCMRevisionImpl(
-                                head, currRevision.toString().substring(0, 40)));
-            } else {
-                fileSystem = builder.build(owner, scm, currRevision);
+            DecisionCache.Key key = key(source, head, currRevision, lastBuiltRevision);
+            Decision cached = DecisionCache.get().lookup(key);
+            if (cached == null && lastBuiltRevision != null) {
+                // decided before the last restart, the decision log of this run does not have it yet
+                cached = DecisionStore.get().lookup(key);
+                if (cached != null) {
+                    DecisionCache.get().store(key, cached);
+                    EvaluationMetrics.Outcome outcome = EvaluationMetrics.Outcome.of(cached.isBuild());
+                    String reason = cached.getReason();
+                    record(source, head, currRevision, lastBuiltRevision, outcome, true, reason, cached, null);
+                }
+            }
+            if (cached != null) {
+                if (getVerbosity() != Verbosity.QUIET) {
+                    listener.getLogger().printf("%s (cached)%n", cached.getReason());
+                }
+                // the evaluation that made the decision counted its outcome already
+                EvaluationMetrics.get().recordCached();
+                return cached.isBuild();
             }
 
-            if (fileSystem == null) {
-                listener.error("Error retrieving SCMFileSystem");
-                return true;
+            Future<EvaluationService.Result> evaluation = EvaluationService.get().inFlight(key);
+            if (evaluation == null) {
+                prefetch(source, owner, getVerbosity() == Verbosity.VERBOSE ? listener : TaskListener.NULL);
+                evaluation = submit(source, head, currRevision, lastBuiltRevision, key);
+            }
+            int timeout = timeoutSeconds > 0 ? timeoutSeconds : TIMEOUT_SECONDS;
+            EvaluationService.Result result;
+            try {
+                result = EvaluationService.get().await(evaluation, timeout);
+            } catch (TimeoutException | CancellationException e) {
+                EvaluationService.get().recordTimeout(key);
+                boolean build = isBuildOnTimeout();
+                String reason = String.format(
+                        "Evaluation of %s did not finish within %d seconds, build is %s",
+                        head.getName(), timeout, build);
+                if (getVerbosity() != Verbosity.QUIET) {
+                    listener.getLogger().println(reason);
+                }
+                // an evaluation that other callers still wait for counts its own outcome when it finishes
+                if (EvaluationService.claimOutcome(evaluation)) {
+                    EvaluationMetrics.get().record(EvaluationMetrics.Outcome.ERROR_FALLBACK);
+                    record(
+                            source,
+                            head,
+                            currRevision,
+                            lastBuiltRevision,
+                            EvaluationMetrics.Outcome.ERROR_FALLBACK,
+                            false,
+                            reason,
+                            null,
+                            null);
+                }
+                return build;
             }
+            result.replay(listener);
+            return result.isBuild();
+        } catch (Exception e) {
+            listener.error("Exception: %s%n", e);
+            EvaluationMetrics.get().record(EvaluationMetrics.Outcome.ERROR_FALLBACK);
+            return true;
+        }
+    }
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
+    @NonNull
+    DecisionCache.Key key(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @CheckForNull SCMRevision lastBuiltRevision) {
+        return new DecisionCache.Key(
+                source.getId(),
+                head.getName(),
+                revisionId(currRevision),
+                revisionId(lastBuiltRevision),
+                configHash());
+    }
 
-            if (lastBuiltRevision != null && !(lastBuiltRevision instanceof AbstractGitSCMSource.SCMRevisionImpl)) {
-                fileSystem.changesSince(
-                        new AbstractGitSCMSource.SCMRevisionImpl(
-                                head, lastBuiltRevision.toString().substring(0, 40)),
-                        out);
-            } else {
-                fileSystem.changesSince(lastBuiltRevision, out);
+    @NonNull
+    private Future<EvaluationService.Result> submit(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @CheckForNull SCMRevision lastBuiltRevision,
+            @NonNull DecisionCache.Key key) {
+        return EvaluationService.get()
+                .submit(
+                        key,
+                        repository(source),
+                        listener -> evaluateRange(source, head, currRevision, lastBuiltRevision, key, listener));
+    }
+
+    /**
+     * @return the remote of git sources, the id of other sources
+     */
+    @NonNull
+    private static String repository(@NonNull SCMSource source) {
+        return source instanceof AbstractGitSCMSource ? ((AbstractGitSCMSource) source).getRemote() : source.getId();
+    }
+
+    /**
+     * Submit the evaluation of every changed head of the multibranch project, so that the branch API finds them
+     * evaluated or in flight when it gets to them
+     */
+    private void prefetch(@NonNull SCMSource source, @NonNull SCMSourceOwner owner, @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        if (!EvaluationService.PREFETCH
+                || !(owner instanceof MultiBranchProject)
+                || !EvaluationService.get().claimPrefetch(source.getId())) {
+            return;
+        }
+        Map<String, SCMRevision> built = lastBuiltRevisions((MultiBranchProject<?, ?>) owner, source.getId());
+        Map<SCMHead, SCMRevision> current = source.fetch(SCMHeadObserver.collect(), listener).result();
+        int submitted = 0;
+        for (Map.Entry<SCMHead, SCMRevision> entry : current.entrySet()) {
+            SCMHead head = entry.getKey();
+            SCMRevision revision = entry.getValue();
+            SCMRevision lastBuilt = built.get(head.getName());
+            if (revision == null || revision.equals(lastBuilt)) {
+                continue;
+            }
+            DecisionCache.Key key = key(source, head, revision, lastBuilt);
+            if (EvaluationService.get().inFlight(key) == null && !DecisionCache.get().contains(key)) {
+                submit(source, head, revision, lastBuilt, key);
+                submitted++;
             }
+        }
+        listener.getLogger().printf("Evaluating %d changed heads in parallel%n", submitted);
+    }
 
-            GitChangeLogParser parser = new GitChangeLogParser(true);
+    @NonNull
+    private static <P extends Job<P, R> & TopLevelItem, R extends Run<P, R>>
+            Map<String, SCMRevision> lastBuiltRevisions(
+                    @NonNull MultiBranchProject<P, R> project, @NonNull String sourceId) {
+        BranchProjectFactory<P, R> factory = project.getProjectFactory();
+        Map<String, SCMRevision> revisions = new HashMap<>();
+        for (P job : project.getItems()) {
+            if (!factory.isProject(job)) {
+                continue;
+            }
+            Branch branch = factory.getBranch(job);
+            if (sourceId.equals(branch.getSourceId())) {
+                revisions.put(branch.getHead().getName(), factory.getRevision(job));
+            }
+        }
+        return revisions;
+    }
 
-            List<GitChangeSet> logs = parser.parse(new ByteArrayInputStream(out.toByteArray()));
-            List<String> ignoredAuthorsList = Arrays.stream(ignoredAuthors.split(","))
-                    .map(e -> e.trim().toLowerCase())
-                    .collect(Collectors.toList());
+    /**
+     * Evaluate a revision range, writing the explanation to the listener
+     *
+     * @return true if a build is required, or if the range could not be evaluated
+     */
+    private boolean evaluateRange(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @CheckForNull SCMRevision lastBuiltRevision,
+            @NonNull DecisionCache.Key key,
+            @NonNull TaskListener listener) {
+        EvaluationMetrics.Timings timings = new EvaluationMetrics.Timings();
+        Decision decision = null;
+        String failure = null;
+        // errors are always written, the progress of the evaluation only when verbose
+        TaskListener progress = getVerbosity() == Verbosity.VERBOSE ? listener : TaskListener.NULL;
 
-            listener.getLogger().printf("Ignored authors: %s%n", ignoredAuthorsList.toString());
+        try {
+            if (source.getOwner() == null) {
+                failure = "Error retrieving SCMSourceOwner";
+                listener.error(failure);
+                return true;
+            }
 
-            for (GitChangeSet log : logs) {
-                String authorEmail = log.getAuthorEmail().trim().toLowerCase();
-                Boolean isIgnoredAuthor = ignoredAuthorsList.contains(authorEmail);
+            String tip = tip(source, head, currRevision, progress);
+            AuthorMatcher shared = sharedMatcher();
+            SCMRevision since = lastBuiltRevision == null
+                    ? mergeBase(source, head, currRevision, progress)
+                    : gitRevision(source, head, lastBuiltRevision, progress);
+            Watermarks.Key markKey = new Watermarks.Key(source.getId(), head.getName(), key.getConfigHash());
 
-                if (isIgnoredAuthor) {
-                    if (!allowBuildIfNotExcludedAuthor) {
-                        // if author is ignored and changesets with at least one non-excluded author are not allowed
-                        listener.getLogger()
-                                .printf(
-                                        "Changeset contains ignored author %s (%s), and allowBuildIfNotExcludedAuthor is %s, therefore build is not required%n",
-                                        authorEmail, log.getCommitId(), allowBuildIfNotExcludedAuthor);
-                        return false;
-                    }
+            // forks share branch names and commits, the push event must come from the repository of the source
+            String fullName = PushPayloads.fullName(source);
+            // the push event that triggered this evaluation may list all the commits of the range
+            // both list every commit brought in, not only the first parents
+            boolean allParents = getTraversal() == Traversal.ALL_PARENTS;
+            String origin = "of the push event";
+            ChangelogContext.Changelog changelog = lastBuiltRevision == null || !allParents
+                    ? null
+                    : PushPayloads.get().lookup(fullName, head.getName(), revisionId(since), tip);
+            if (changelog == null && allParents && maxBytes == 0 && pathMatcher.isEmpty()) {
+                // another strategy of the chain may have read this range already, byte limits and path rules need the
+                // raw changelog
+                origin = "already read for this range";
+                changelog = ChangelogContext.get().lookup(source, head, revisionId(since), tip);
+            }
+            CommitScan<Decision> replayed = changelog == null
+                    ? null
+                    : changelog.replay(
+                            (commitId, authorEmail, paths) -> evaluate(commitId, authorEmail, paths, shared, timings),
+                            maxCommits);
+            if (replayed != null) {
+                timings.scanned(replayed, 0);
+                printIgnoredAuthors(shared, progress);
+                progress.getLogger().printf("Using the %d commits %s%n", replayed.getCommits(), origin);
+                decision = finish(markKey, revisionId(since), tip, replayed, progress);
+            } else {
+                long start = System.nanoTime();
+                try (FileSystemPool.Lease lease = lease(source, head, currRevision, tip)) {
+                    String base = revisionId(since);
+                    SCMFileSystem fileSystem = fileSystem(lease, tip, base);
+                    timings.add(EvaluationMetrics.Phase.FILE_SYSTEM, System.nanoTime() - start);
 
-                } else {
-                    if (allowBuildIfNotExcludedAuthor) {
-                        // if author is not ignored and changesets with at least one non-excluded author are allowed
-                        listener.getLogger()
-                                .printf(
-                                        "Changeset contains non ignored author %s (%s) and allowIfNotExcluded is %s, build is required%n",
-                                        authorEmail, log.getCommitId(), allowBuildIfNotExcludedAuthor);
+                    if (fileSystem == null) {
+                        failure = "Error retrieving SCMFileSystem";
+                        listener.error(failure);
+                        return true;
+                    }
+                    if (base != null && !contains(fileSystem, base)) {
+                        // the scan would fail on it, even after fetching the repository again
+                        failure = "Commit " + base + " is missing from the repository of " + head.getName();
+                        listener.error(failure);
                         return true;
                     }
+
+                    printIgnoredAuthors(shared, progress);
+                    decision = scan(fileSystem, source, head, tip, since, markKey, shared, timings, progress);
                 }
             }
-            // here if commits are made by ignored authors and allowBuildIfNotExcludedAuthor is true, in this case
-            // return false
-            // or if all commits are made by non-ignored authors and allowBuildIfNotExcludedAuthor is false, in this
-            // case return true
+            if (getVerbosity() != Verbosity.QUIET) {
+                listener.getLogger().println(decision.getReason());
+            }
+            DecisionCache.get().store(key, decision);
+            if (lastBuiltRevision != null) {
+                DecisionStore.get().store(key, decision);
+            }
+            return decision.isBuild();
+        } catch (Exception e) {
+            failure = "Exception: " + e;
+            listener.error("Exception: %s%n", e);
+            return true;
+        } finally {
+            // a cancelled evaluation is counted by the caller that gave up on it
+            if (EvaluationService.claimOutcome()) {
+                EvaluationMetrics.Outcome outcome = decision == null
+                        ? EvaluationMetrics.Outcome.ERROR_FALLBACK
+                        : EvaluationMetrics.Outcome.of(decision.isBuild());
+                EvaluationMetrics.get().record(outcome);
+                EvaluationMetrics.get().record(repository(source), timings);
+                String reason =
+                        decision != null ? decision.getReason() : failure != null ? failure : "Evaluation failed";
+                record(source, head, currRevision, lastBuiltRevision, outcome, false, reason, decision, timings);
+            }
+        }
+    }
+
+    /**
+     * Keep a structured record of an evaluation in the {@link DecisionLog} of the project owning the source
+     */
+    private static void record(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @CheckForNull SCMRevision lastBuiltRevision,
+            @NonNull EvaluationMetrics.Outcome outcome,
+            boolean cached,
+            @NonNull String reason,
+            @CheckForNull Decision decision,
+            @CheckForNull EvaluationMetrics.Timings timings) {
+        SCMSourceOwner owner = source.getOwner();
+        String job = owner == null ? null : owner.getFullName();
+        if (job == null) {
+            return;
+        }
+        DecisionLog.get()
+                .add(
+                        job,
+                        new DecisionLog.Record(
+                                source.getId(),
+                                head.getName(),
+                                revisionId(currRevision),
+                                revisionId(lastBuiltRevision),
+                                outcome,
+                                cached,
+                                reason,
+                                decision,
+                                timings));
+    }
+
+    private void printIgnoredAuthors(@CheckForNull AuthorMatcher shared, @NonNull TaskListener listener) {
+        listener.getLogger().printf("Ignored authors: %s%n", authorMatcher);
+        if (ignoredAuthorsList != null) {
             listener.getLogger()
                     .printf(
-                            "All commits in the changeset are made by %s authors, build is %s%n",
-                            allowBuildIfNotExcludedAuthor ? "excluded" : "non-excluded",
-                            !allowBuildIfNotExcludedAuthor);
+                            "Ignored authors list %s: %s%n",
+                            ignoredAuthorsList,
+                            shared == null ? "not found" : shared.size() + " entries");
+        }
+        if (!pathMatcher.isEmpty()) {
+            listener.getLogger().printf("Ignored paths: %s%n", pathMatcher);
+        }
+        if (getTraversal() != Traversal.ALL_PARENTS) {
+            listener.getLogger().printf("Scanning %s%n", getTraversal().getDisplayName().toLowerCase(Locale.ENGLISH));
+        }
+    }
 
-            return !allowBuildIfNotExcludedAuthor;
-        } catch (Exception e) {
-            listener.error("Exception: %s%n", e);
+    /**
+     * @return the git form of a revision, other revisions are resolved through the {@link RevisionResolver}
+     * @throws IOException if the revision does not name a commit
+     */
+    @NonNull
+    static AbstractGitSCMSource.SCMRevisionImpl gitRevision(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision revision,
+            @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        if (revision instanceof AbstractGitSCMSource.SCMRevisionImpl) {
+            return (AbstractGitSCMSource.SCMRevisionImpl) revision;
+        }
+        String hash = RevisionResolver.get().resolve(source, revision, listener);
+        if (hash == null) {
+            throw new IOException("Could not resolve revision " + revision + " to a commit");
+        }
+        return new AbstractGitSCMSource.SCMRevisionImpl(head, hash);
+    }
+
+    /**
+     * @return the commit hash of the current revision of a head
+     * @throws IOException if the revision does not name a commit
+     */
+    @NonNull
+    static String tip(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        return gitRevision(source, head, currRevision, listener).getHash();
+    }
+
+    /**
+     * Lease the file system of a head from the pool, building it for the current revision if the pool has none
+     *
+     * @param tip the commit of the current revision, as resolved by {@link #tip}
+     * @return the lease, to be closed once the file system is no longer used
+     */
+    @NonNull
+    static FileSystemPool.Lease lease(
+            @NonNull SCMSource source, @NonNull SCMHead head, @NonNull SCMRevision currRevision, @NonNull String tip)
+            throws IOException {
+        SCMSourceOwner owner = source.getOwner();
+        if (owner == null) {
+            throw new IOException("Error retrieving SCMSourceOwner");
+        }
+        GitSCMFileSystem.Builder builder = new GitSCMFileSystem.BuilderImpl();
+        SCM scm = source.build(head, currRevision);
+        FileSystemPool.Builder build = currRevision instanceof AbstractGitSCMSource.SCMRevisionImpl
+                ? () -> builder.build(owner, scm, currRevision)
+                : () -> builder.build(source, head, new AbstractGitSCMSource.SCMRevisionImpl(head, tip));
+        return FileSystemPool.get().acquire(poolKey(source, tip), build);
+    }
+
+    /**
+     * @param since the commit the changes are read from, {@code null} if there is none
+     * @return the file system of a lease, refreshed if it is shared and does not have the tip or the {@code since}
+     *     commit yet, {@code null} if it could not be built
+     */
+    @CheckForNull
+    static SCMFileSystem fileSystem(
+            @NonNull FileSystemPool.Lease lease, @NonNull String tip, @CheckForNull String since)
+            throws IOException, InterruptedException {
+        SCMFileSystem fileSystem = lease.get();
+        if (fileSystem != null
+                && !lease.isBuilt()
+                && !(contains(fileSystem, tip) && (since == null || contains(fileSystem, since)))) {
+            // the shared file system was fetched before these commits were pushed, a merge base target may have moved
+            fileSystem = lease.refresh();
+        }
+        return fileSystem;
+    }
+
+    /**
+     * Scan the changes of the file system since the given revision, continuing from the last evaluation of the head
+     * when its history was only extended since
+     *
+     * @return the decision for the scanned changeset
+     */
+    @NonNull
+    private Decision scan(
+            @NonNull SCMFileSystem fileSystem,
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull String tip,
+            @CheckForNull SCMRevision since,
+            @NonNull Watermarks.Key markKey,
+            @CheckForNull AuthorMatcher shared,
+            @NonNull EvaluationMetrics.Timings timings,
+            @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        String base = revisionId(since);
+        SCMRevision from = since;
+        Traversal traversal = getTraversal();
+        if (traversal != Traversal.ALL_PARENTS && !canWalk(fileSystem, tip)) {
+            listener.getLogger().println("Only git repositories can follow the first parents, scanning all commits");
+        }
+        // a previous tip brought in by a merge is not on the first parent chain of the new tip
+        Watermarks.Watermark mark = traversal == Traversal.ALL_PARENTS ? Watermarks.get().lookup(markKey) : null;
+        if (mark != null && Objects.equals(base, mark.getBase())) {
+            if (isAncestor(fileSystem, mark.getTip(), tip)) {
+                // base..tip is base..mark.tip plus mark.tip..tip, and a decisive commit stays decisive
+                Decision decisive = mark.getDecisive();
+                if (decisive != null) {
+                    listener.getLogger().printf("Commits up to %s were already evaluated%n", mark.getTip());
+                    Watermarks.get().store(markKey, new Watermarks.Watermark(base, tip, decisive));
+                    return decisive;
+                }
+                listener.getLogger()
+                        .printf("Commits up to %s were already evaluated, scanning the new commits%n", mark.getTip());
+                from = new AbstractGitSCMSource.SCMRevisionImpl(head, mark.getTip());
+            } else {
+                listener.getLogger()
+                        .printf(
+                                "History of %s was rewritten since %s, scanning all commits%n",
+                                head.getName(), mark.getTip());
+            }
+        }
+
+        CommitScan<Decision> scanner = read(fileSystem, source, head, tip, from, shared, timings);
+        return finish(markKey, base, tip, scanner, listener);
+    }
+
+    /**
+     * Remember how far the head was evaluated and conclude
+     *
+     * @return the decision for the scanned changeset
+     */
+    @NonNull
+    private Decision finish(
+            @NonNull Watermarks.Key markKey,
+            @CheckForNull String base,
+            @NonNull String tip,
+            @NonNull CommitScan<Decision> scanner,
+            @NonNull TaskListener listener) {
+        if (scanner.getLimitReached() == null) {
+            Watermarks.get().store(markKey, new Watermarks.Watermark(base, tip, scanner.getDecision()));
+        } else {
+            Watermarks.get().remove(markKey);
+        }
+        return conclude(scanner, listener);
+    }
+
+    /**
+     * Key of the pooled file system for a source, file systems are only shared when commits are walked with JGit since
+     * the textual changelog is bound to the revision the file system was built for
+     *
+     * @return the key, or {@code null} if the file system must not be shared
+     */
+    @CheckForNull
+    private static String poolKey(@NonNull SCMSource source, @NonNull String tip) {
+        if (!USE_REV_WALK || !ObjectId.isId(tip) || !(source instanceof AbstractGitSCMSource)) {
+            return null;
+        }
+        return source.getId() + "@" + ((AbstractGitSCMSource) source).getRemote();
+    }
+
+    /**
+     * Check if the repository of a git file system has a commit
+     *
+     * @return false if the commit is missing, true if it is there or cannot be checked
+     */
+    private static boolean contains(@NonNull SCMFileSystem fileSystem, @NonNull String commit)
+            throws IOException, InterruptedException {
+        if (!(fileSystem instanceof GitSCMFileSystem) || !ObjectId.isId(commit)) {
             return true;
         }
+        return ((GitSCMFileSystem) fileSystem)
+                .invoke(repository -> repository.getObjectDatabase().has(ObjectId.fromString(commit)));
+    }
+
+    /**
+     * Check if a commit is part of the history of another one
+     *
+     * @return true if {@code ancestor} is reachable from {@code descendant}, false if unknown
+     */
+    private static boolean isAncestor(
+            @NonNull SCMFileSystem fileSystem, @NonNull String ancestor, @NonNull String descendant)
+            throws IOException, InterruptedException {
+        if (ancestor.equals(descendant)) {
+            return true;
+        }
+        if (!(fileSystem instanceof GitSCMFileSystem) || !ObjectId.isId(ancestor) || !ObjectId.isId(descendant)) {
+            return false;
+        }
+        return ((GitSCMFileSystem) fileSystem).invoke(repository -> {
+            try (RevWalk walk = new RevWalk(repository)) {
+                return walk.isMergedInto(
+                        walk.parseCommit(ObjectId.fromString(ancestor)),
+                        walk.parseCommit(ObjectId.fromString(descendant)));
+            } catch (MissingObjectException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Read the changes up to the given commit since the given revision, sharing the commits read with the other
+     * strategies evaluating the same range through the {@link ChangelogContext} unless only the first parents were
+     * followed
+     *
+     * @return the finished scan, holding the decisive commit if there was one
+     */
+    @NonNull
+    private CommitScan<Decision> read(
+            @NonNull SCMFileSystem fileSystem,
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull String tip,
+            @CheckForNull SCMRevision since,
+            @CheckForNull AuthorMatcher shared,
+            @NonNull EvaluationMetrics.Timings timings)
+            throws IOException, InterruptedException {
+        List<ChangelogContext.Commit> commits = new ArrayList<>();
+        CommitScan<Decision> scanner = read(
+                fileSystem,
+                tip,
+                since,
+                (commitId, authorEmail, paths) -> {
+                    if (commits.size() < ChangelogContext.MAX_COMMITS) {
+                        commits.add(new ChangelogContext.Commit(commitId, authorEmail));
+                    }
+                    return evaluate(commitId, authorEmail, paths, shared, timings);
+                },
+                maxCommits,
+                maxBytes,
+                getTraversal(),
+                timings);
+        if (getTraversal() == Traversal.ALL_PARENTS) {
+            boolean complete = scanner.getDecision() == null
+                    && scanner.getLimitReached() == null
+                    && commits.size() == scanner.getCommits();
+            ChangelogContext.get().publish(source, head, revisionId(since), tip, commits, complete);
+        }
+        return scanner;
+    }
+
+    /**
+     * Read the changes up to the given commit since the given revision
+     * <p>
+     * Commits of a {@link GitSCMFileSystem} are walked directly in its repository, which may be shared with other
+     * heads. Other file systems go through their textual changelog and must have been built for {@code tip}, which
+     * always holds all the commits brought in, whatever the traversal.
+     *
+     * @param visitor called for every commit, returns the decision or {@code null} to continue
+     * @return the finished scan, holding the decisive commit if there was one
+     */
+    @NonNull
+    static <D> CommitScan<D> read(
+            @NonNull SCMFileSystem fileSystem,
+            @NonNull String tip,
+            @CheckForNull SCMRevision since,
+            @NonNull CommitScan.Visitor<D> visitor,
+            int maxCommits,
+            long maxBytes,
+            @NonNull Traversal traversal,
+            @NonNull EvaluationMetrics.Timings timings)
+            throws IOException, InterruptedException {
+        String from = revisionId(since);
+        long start = System.nanoTime();
+        if (canWalk(fileSystem, tip)) {
+            RevWalkScanner<D> scanner = scanner(visitor, maxCommits, maxBytes, traversal);
+            ((GitSCMFileSystem) fileSystem).invoke(repository -> {
+                scanner.scan(repository, ObjectId.fromString(tip), from == null ? null : ObjectId.fromString(from));
+                return null;
+            });
+            timings.scanned(scanner, System.nanoTime() - start);
+            return scanner;
+        }
+
+        // commits are evaluated while the changelog is produced, so we stop reading at the first decisive one
+        ChangelogScanner<D> scanner = new ChangelogScanner<>(
+                log -> visitor.visit(log.getCommitId(), log.getAuthorEmail(), log::getAffectedPaths),
+                maxCommits,
+                maxBytes);
+        try {
+            fileSystem.changesSince(since, scanner);
+        } catch (IOException | RuntimeException e) {
+            // the producer may wrap our ScanStoppedException, the scanner knows whether it was ours
+            if (!scanner.isStopped()) {
+                throw e;
+            }
+        }
+        scanner.close();
+        timings.scanned(scanner, System.nanoTime() - start);
+        return scanner;
+    }
+
+    /**
+     * @return a scanner walking the commits of a repository with the given limits and traversal
+     */
+    @NonNull
+    static <D> RevWalkScanner<D> scanner(
+            @NonNull CommitScan.Visitor<D> visitor, int maxCommits, long maxBytes, @NonNull Traversal traversal) {
+        RevWalkScanner<D> scanner = new RevWalkScanner<>(visitor, maxCommits, maxBytes);
+        if (traversal != Traversal.ALL_PARENTS) {
+            scanner.firstParent(traversal == Traversal.FIRST_PARENT_NO_MERGES);
+        }
+        return scanner;
+    }
+
+    /**
+     * @return whether the commits of the file system can be walked directly
+     */
+    private static boolean canWalk(@NonNull SCMFileSystem fileSystem, @NonNull String tip) {
+        return USE_REV_WALK && fileSystem instanceof GitSCMFileSystem && ObjectId.isId(tip);
+    }
+
+    /**
+     * Conclude the evaluation of a scanned changeset
+     *
+     * @return the decisive commit if there was one, else the fallback for a reached limit, else the decision for a
+     *     changeset without decisive commit
+     */
+    @NonNull
+    Decision conclude(@NonNull CommitScan<Decision> scanner, @NonNull TaskListener listener) {
+        Decision decision = scanner.getDecision();
+        if (decision != null) {
+            return decision;
+        }
+        CommitScan.Limit limit = scanner.getLimitReached();
+        if (limit != null) {
+            boolean commitLimit = limit == CommitScan.Limit.COMMITS;
+            LimitFallback fallback = commitLimit ? getCommitLimitFallback() : getByteLimitFallback();
+            listener.getLogger()
+                    .printf(
+                            "Stopped scanning the changeset after %d commits and %d bytes, the %s limit of %d was reached%n",
+                            scanner.getCommits(),
+                            scanner.getBytes(),
+                            commitLimit ? "commit" : "byte",
+                            commitLimit ? maxCommits : maxBytes);
+            if (fallback != LimitFallback.SCANNED) {
+                boolean build = fallback == LimitFallback.BUILD;
+                return Decision.of(
+                        build,
+                        "Fallback for the %s limit is to %s",
+                        commitLimit ? "commit" : "byte",
+                        build ? "build" : "not build");
+            }
+        }
+
+        // here if commits are made by ignored authors and allowBuildIfNotExcludedAuthor is true, in this case
+        // return false
+        // or if all commits are made by non-ignored authors and allowBuildIfNotExcludedAuthor is false, in this
+        // case return true
+        if (!pathMatcher.isEmpty()) {
+            return Decision.of(
+                    !allowBuildIfNotExcludedAuthor,
+                    "All commits in the changeset %s, build is %s",
+                    allowBuildIfNotExcludedAuthor
+                            ? "are made by excluded authors or only change ignored paths"
+                            : "are made by non-excluded authors and change other paths",
+                    !allowBuildIfNotExcludedAuthor);
+        }
+        return Decision.of(
+                !allowBuildIfNotExcludedAuthor,
+                "All commits in the changeset are made by %s authors, build is %s",
+                allowBuildIfNotExcludedAuthor ? "excluded" : "non-excluded",
+                !allowBuildIfNotExcludedAuthor);
+    }
+
+    /**
+     * Hash of every setting that affects the decision, so that cached decisions are not reused after a change
+     */
+    int configHash() {
+        return Objects.hash(
+                ignoredAuthors,
+                allowBuildIfNotExcludedAuthor,
+                maxCommits,
+                maxBytes,
+                getCommitLimitFallback().name(),
+                getByteLimitFallback().name(),
+                scanFromMergeBase,
+                mergeBaseTarget,
+                ignoredAuthorsList,
+                ignoredPaths,
+                getTraversal().name(),
+                ignoredAuthorsList == null ? 0 : Objects.hashCode(sharedMatcher()));
+    }
+
+    /**
+     * @return the compiled shared list this strategy refers to, {@code null} if there is none
+     */
+    @CheckForNull
+    private AuthorMatcher sharedMatcher() {
+        return ignoredAuthorsList == null ? null : IgnoredAuthorsConfiguration.get().getMatcher(ignoredAuthorsList);
+    }
+
+    /**
+     * @return the commit hash of a git revision, or the string form of other revisions
+     */
+    @CheckForNull
+    static String revisionId(@CheckForNull SCMRevision revision) {
+        if (revision == null) {
+            return null;
+        }
+        if (revision instanceof AbstractGitSCMSource.SCMRevisionImpl) {
+            return ((AbstractGitSCMSource.SCMRevisionImpl) revision).getHash();
+        }
+        return revision.toString();
+    }
+
+    /**
+     * Find the revision a head without last built revision left its target, so that only the commits made on the head
+     * itself are scanned instead of its whole history
+     *
+     * @return the target revision, or {@code null} to scan the full history
+     */
+    @CheckForNull
+    private SCMRevision mergeBase(
+            @NonNull SCMSource source,
+            @NonNull SCMHead head,
+            @NonNull SCMRevision currRevision,
+            @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        if (!scanFromMergeBase) {
+            return null;
+        }
+        SCMRevision target = null;
+        if (currRevision instanceof ChangeRequestSCMRevision) {
+            target = ((ChangeRequestSCMRevision<?>) currRevision).getTarget();
+        } else if (head instanceof ChangeRequestSCMHead) {
+            target = source.fetch(((ChangeRequestSCMHead) head).getTarget(), listener);
+        } else if (mergeBaseTarget != null && !mergeBaseTarget.equals(head.getName())) {
+            target = source.fetch(new GitBranchSCMHead(mergeBaseTarget), listener);
+        }
+        if (target == null) {
+            listener.getLogger().printf("No target found for %s, scanning its history%n", head.getName());
+            return null;
+        }
+        target = gitRevision(source, target.getHead(), target, listener);
+        listener.getLogger()
+                .printf("No last built revision, scanning commits since %s left %s%n", head.getName(), target);
+        return target;
+    }
+
+    /**
+     * @return the rules of this strategy as a commit visitor, for evaluations outside of branch indexing
+     */
+    @NonNull
+    CommitScan.Visitor<Decision> visitor() {
+        AuthorMatcher shared = sharedMatcher();
+        return (commitId, authorEmail, paths) -> evaluate(commitId, authorEmail, paths, shared);
+    }
+
+    /**
+     * Check a single commit of the changeset, accounting the time spent matching
+     */
+    @CheckForNull
+    private Decision evaluate(
+            String commitId,
+            @CheckForNull String authorEmail,
+            @NonNull Supplier<Collection<String>> paths,
+            @CheckForNull AuthorMatcher shared,
+            @NonNull EvaluationMetrics.Timings timings) {
+        long start = System.nanoTime();
+        try {
+            return evaluate(commitId, authorEmail, paths, shared);
+        } finally {
+            timings.add(EvaluationMetrics.Phase.MATCH, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Check a single commit of the changeset, a commit is ignored if its author is ignored or if it only changes
+     * ignored paths. Paths are only read when the author is not ignored.
+     *
+     * @return the decision if this commit settles it, {@code null} if the next commit has to be checked
+     */
+    @CheckForNull
+    private Decision evaluate(
+            String commitId,
+            @CheckForNull String authorEmail,
+            @NonNull Supplier<Collection<String>> paths,
+            @CheckForNull AuthorMatcher shared) {
+        boolean isIgnoredAuthor =
+                authorMatcher.matches(authorEmail) || (shared != null && shared.matches(authorEmail));
+        boolean isIgnoredChange = !isIgnoredAuthor && !pathMatcher.isEmpty() && pathMatcher.matchesAll(paths.get());
+
+        if (isIgnoredAuthor) {
+            if (!allowBuildIfNotExcludedAuthor) {
+                // if author is ignored and changesets with at least one non-excluded author are not allowed
+                return Decision.ofCommit(
+                        false,
+                        commitId,
+                        "Changeset contains ignored author %s (%s), and allowBuildIfNotExcludedAuthor is %s, therefore build is not required",
+                        displayEmail(authorEmail),
+                        commitId,
+                        allowBuildIfNotExcludedAuthor);
+            }
+
+        } else if (isIgnoredChange) {
+            if (!allowBuildIfNotExcludedAuthor) {
+                return Decision.ofCommit(
+                        false,
+                        commitId,
+                        "Changeset contains commit %s only changing ignored paths, and allowBuildIfNotExcludedAuthor is %s, therefore build is not required",
+                        commitId,
+                        allowBuildIfNotExcludedAuthor);
+            }
+
+        } else {
+            if (allowBuildIfNotExcludedAuthor) {
+                // if author is not ignored and changesets with at least one non-excluded author are allowed
+                return Decision.ofCommit(
+                        true,
+                        commitId,
+                        "Changeset contains non ignored author %s (%s) and allowIfNotExcluded is %s, build is required",
+                        displayEmail(authorEmail),
+                        commitId,
+                        allowBuildIfNotExcludedAuthor);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the author email as written in decisions, commits may have none
+     */
+    @NonNull
+    private static String displayEmail(@CheckForNull String authorEmail) {
+        String email = authorEmail == null ? "" : AuthorMatcher.normalize(authorEmail);
+        return email.isEmpty() ? "(no email)" : email;
+    }
+
+    /**
+     * Decision taken when a scan limit is reached before the changeset settled it
+     */
+    public enum LimitFallback {
+        BUILD("Build"),
+        SKIP("Do not build"),
+        SCANNED("Decide from the commits scanned so far");
+
+        private final String displayName;
+
+        LimitFallback(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Commits of the revision range that are scanned
+     */
+    public enum Traversal {
+        ALL_PARENTS("All commits brought in, except merge commits"),
+        FIRST_PARENT("Commits on the first parent chain, merge commits included"),
+        FIRST_PARENT_NO_MERGES("Commits on the first parent chain, except merge commits");
+
+        private final String displayName;
+
+        Traversal(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * What the evaluations write to the indexing log
+     */
+    public enum Verbosity {
+        QUIET("Nothing but errors"),
+        SUMMARY("The decision"),
+        VERBOSE("The rules, the progress of the scan and the decision");
+
+        private final String displayName;
+
+        Verbosity(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
     }
 
     @Extension
@@ -179,5 +1222,19 @@ public class IgnoreCommitterStrategy extends BranchBuildStrategy {
         public String getDisplayName() {
             return "Ignore Committer Strategy";
         }
+
+        public FormValidation doCheckIgnoredAuthors(@QueryParameter String value) {
+            List<String> errors = AuthorMatcher.validate(value);
+            return errors.isEmpty() ? FormValidation.ok() : FormValidation.error(String.join("\n", errors));
+        }
+
+        public ListBoxModel doFillIgnoredAuthorsListItems() {
+            ListBoxModel items = new ListBoxModel();
+            items.add("(none)", "");
+            for (IgnoredAuthorList list : IgnoredAuthorsConfiguration.get().getLists()) {
+                items.add(list.getName());
+            }
+            return items;
+        }
     }
 }
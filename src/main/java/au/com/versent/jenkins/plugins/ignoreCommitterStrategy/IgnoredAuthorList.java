@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import java.util.List;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Named list of ignored author emails, defined once in {@link IgnoredAuthorsConfiguration} and referenced by name
+ * from any number of strategies.
+ */
+public class IgnoredAuthorList extends AbstractDescribableImpl<IgnoredAuthorList> {
+
+    private final String name;
+    private final String authors;
+    private transient AuthorMatcher matcher;
+
+    @DataBoundConstructor
+    public IgnoredAuthorList(String name, String authors) {
+        this.name = Util.fixNull(name).trim();
+        this.authors = authors;
+        this.matcher = AuthorMatcher.compile(authors);
+    }
+
+    protected Object readResolve() {
+        matcher = AuthorMatcher.compile(authors);
+        return this;
+    }
+
+    /**
+     * @return name strategies refer to the list by
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return ignored authors separated by commas or new lines
+     */
+    @CheckForNull
+    public String getAuthors() {
+        return authors;
+    }
+
+    /**
+     * @return the compiled list, shared by every strategy referring to it
+     */
+    @NonNull
+    AuthorMatcher getMatcher() {
+        return matcher;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<IgnoredAuthorList> {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Ignored authors list";
+        }
+
+        public FormValidation doCheckName(@QueryParameter String value) {
+            return Util.fixEmptyAndTrim(value) == null ? FormValidation.error("Name is required") : FormValidation.ok();
+        }
+
+        public FormValidation doCheckAuthors(@QueryParameter String value) {
+            List<String> errors = AuthorMatcher.validate(value);
+            return errors.isEmpty() ? FormValidation.ok() : FormValidation.error(String.join("\n", errors));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jenkins.model.GlobalConfiguration;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.StaplerRequest2;
+
+/**
+ * Named lists of ignored authors shared by all jobs.
+ * <p>
+ * Each list is compiled once into an immutable {@link AuthorMatcher}. Strategies only hold the name of the list they
+ * use and look its matcher up in an index that is replaced as a whole when the lists are edited, so evaluations see
+ * either the old or the new lists, and memory does not grow with the number of jobs using a list.
+ */
+@Extension
+@Symbol("ignoreCommitterStrategy")
+public class IgnoredAuthorsConfiguration extends GlobalConfiguration {
+
+    private List<IgnoredAuthorList> lists = new ArrayList<>();
+
+    private transient volatile Map<String, AuthorMatcher> index = Collections.emptyMap();
+
+    public IgnoredAuthorsConfiguration() {
+        load();
+        reindex();
+    }
+
+    @NonNull
+    public static IgnoredAuthorsConfiguration get() {
+        return ExtensionList.lookupSingleton(IgnoredAuthorsConfiguration.class);
+    }
+
+    @NonNull
+    public List<IgnoredAuthorList> getLists() {
+        return Collections.unmodifiableList(lists);
+    }
+
+    @DataBoundSetter
+    public void setLists(List<IgnoredAuthorList> lists) {
+        this.lists = lists == null ? new ArrayList<>() : new ArrayList<>(lists);
+        reindex();
+        save();
+    }
+
+    @Override
+    public boolean configure(StaplerRequest2 req, JSONObject json) throws FormException {
+        // an empty repeatable is not submitted at all
+        if (!json.has("lists")) {
+            json.put("lists", new JSONArray());
+        }
+        // bound aside, so that evaluations keep the current lists until the new ones are indexed
+        List<IgnoredAuthorList> submitted = req.bindJSONToList(IgnoredAuthorList.class, json.get("lists"));
+        lists = new ArrayList<>(submitted);
+        reindex();
+        save();
+        return true;
+    }
+
+    /**
+     * @return the compiled list with that name, {@code null} if there is none
+     */
+    @CheckForNull
+    AuthorMatcher getMatcher(@NonNull String name) {
+        return index.get(name);
+    }
+
+    private void reindex() {
+        Map<String, AuthorMatcher> matchers = new HashMap<>();
+        for (IgnoredAuthorList list : lists) {
+            // the first list wins when names are duplicated
+            matchers.putIfAbsent(list.getName(), list.getMatcher());
+        }
+        index = Collections.unmodifiableMap(matchers);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable set of ignored path rules, compiled once when the configuration is loaded.
+ * <p>
+ * Rules are separated by commas or new lines and follow the usual gitignore conventions:
+ * <ul>
+ *     <li>{@code *.md} without a slash matches a file or directory of that name at any depth</li>
+ *     <li>{@code docs/site} or {@code /README.md} with a slash matches from the root of the repository</li>
+ *     <li>{@code *} and {@code ?} match within a single path segment, {@code **} matches across segments</li>
+ *     <li>a rule matching a directory matches everything below it, so {@code docs}, {@code docs/} and
+ *     {@code docs/**} are the same rule</li>
+ * </ul>
+ * All the rules are combined into a single pattern.
+ */
+final class PathMatcher {
+
+    static final PathMatcher EMPTY = new PathMatcher(new String[0]);
+
+    private final String[] entries;
+
+    @CheckForNull
+    private final Pattern combined;
+
+    private PathMatcher(String[] entries) {
+        this.entries = entries;
+        StringBuilder regex = new StringBuilder();
+        for (String entry : entries) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(globToRegex(entry)).append(')');
+        }
+        this.combined = entries.length == 0 ? null : Pattern.compile(regex.toString());
+    }
+
+    /**
+     * @param paths rules separated by commas or new lines, may be {@code null}
+     */
+    @NonNull
+    static PathMatcher compile(@CheckForNull String paths) {
+        List<String> rules = split(paths);
+        return rules.isEmpty() ? EMPTY : new PathMatcher(rules.toArray(new String[0]));
+    }
+
+    @NonNull
+    static List<String> split(@CheckForNull String paths) {
+        Set<String> rules = new LinkedHashSet<>();
+        if (paths != null) {
+            for (String rule : paths.split("[,\\r\\n]")) {
+                rule = rule.trim();
+                if (!rule.isEmpty() && !"/".equals(rule)) {
+                    rules.add(rule);
+                }
+            }
+        }
+        return new ArrayList<>(rules);
+    }
+
+    boolean isEmpty() {
+        return combined == null;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return {@code true} if the path matches any rule
+     */
+    boolean matches(@CheckForNull String path) {
+        return combined != null && path != null && combined.matcher(path).matches();
+    }
+
+    /**
+     * @return {@code true} if there is at least one path and every one matches a rule
+     */
+    boolean matchesAll(@NonNull Collection<String> paths) {
+        if (combined == null || paths.isEmpty()) {
+            return false;
+        }
+        for (String path : paths) {
+            if (!matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String globToRegex(@NonNull String glob) {
+        String rule = glob;
+        boolean anchored = rule.startsWith("/");
+        if (anchored) {
+            rule = rule.substring(1);
+        }
+        while (rule.endsWith("/")) {
+            rule = rule.substring(0, rule.length() - 1);
+        }
+        // only a trailing slash leaves a rule unanchored
+        anchored |= rule.indexOf('/') >= 0;
+        if (rule.endsWith("/**")) {
+            rule = rule.substring(0, rule.length() - 3);
+        }
+
+        StringBuilder regex = new StringBuilder(anchored ? "" : "(?:.*/)?");
+        int i = 0;
+        while (i < rule.length()) {
+            char c = rule.charAt(i);
+            if (c == '*' && rule.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+                continue;
+            }
+            if (c == '*' && rule.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+                continue;
+            }
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                if ("\\.[]{}()<>+-=!^$|".indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+            i++;
+        }
+        // a directory matches everything below it
+        return regex.append("(?:/.*)?").toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(entries, ((PathMatcher) o).entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(entries);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", entries);
+    }
+}
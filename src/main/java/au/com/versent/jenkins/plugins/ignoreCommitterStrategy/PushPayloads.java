@@ -0,0 +1,264 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMSource;
+import jenkins.util.SystemProperties;
+import org.eclipse.jgit.lib.ObjectId;
+import org.kohsuke.github.GHEventPayload;
+
+/**
+ * Commits of the recent push events, so that the evaluation they trigger can be decided without reading git.
+ * <p>
+ * A push event lists the commits between the previous and the new tip of the branch, with their authors and changed
+ * paths. Payloads that may not hold every commit, because the list was truncated or the push created, deleted or
+ * force-pushed the branch, are not kept. Consecutive pushes are chained, so a range spanning several pushes is still
+ * answered as long as every push of it was received. Pushes are kept per repository, so that forks with the same
+ * branch and commits do not answer the ranges of each other.
+ * <p>
+ * The payload does not list the parents of the commits, while evaluations read from git skip merge commits. Only
+ * pushes of a single commit are kept: a merge brings in at least one commit of the merged branch, which the payload
+ * would list as well, so the single commit of a push is not a merge. Pushes of several commits are evaluated from git.
+ */
+final class PushPayloads {
+
+    static final int MAX_SIZE = SystemProperties.getInteger(PushPayloads.class.getName() + ".maxSize", 1000);
+
+    static final long TTL_MILLIS = SystemProperties.getLong(
+            PushPayloads.class.getName() + ".ttlMillis", TimeUnit.MINUTES.toMillis(10));
+
+    /**
+     * GitHub lists at most this many commits in a push event.
+     */
+    static final int MAX_PAYLOAD_COMMITS = 2048;
+
+    /**
+     * Maximum number of consecutive pushes chained to cover a range.
+     */
+    static final int MAX_PUSHES = 16;
+
+    private static final String BRANCH_PREFIX = "refs/heads/";
+
+    /**
+     * Owner and name of a repository at the end of its remote, such as {@code https://github.com/owner/name.git} or
+     * {@code git@github.com:owner/name.git}.
+     */
+    private static final Pattern FULL_NAME = Pattern.compile("([^/:]+)/([^/]+?)(?:\\.git)?/*$");
+
+    private static final PushPayloads INSTANCE = new PushPayloads(MAX_SIZE, TTL_MILLIS);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Push> entries;
+
+    PushPayloads(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Push> eldest) {
+                return size() > PushPayloads.this.maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    static PushPayloads get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Keep the commit of a push event if it is the only one pushed
+     *
+     * @return {@code true} if the payload was kept
+     */
+    boolean record(@NonNull GHEventPayload.Push payload) {
+        String ref = payload.getRef();
+        String repository = payload.getRepository() == null ? null : payload.getRepository().getFullName();
+        String before = payload.getBefore();
+        String after = payload.getHead();
+        List<GHEventPayload.Push.PushCommit> pushed = payload.getCommits();
+        if (maxSize <= 0
+                || ref == null
+                || !ref.startsWith(BRANCH_PREFIX)
+                || repository == null
+                || !ObjectId.isId(before)
+                || !ObjectId.isId(after)
+                || payload.isCreated()
+                || payload.isDeleted()
+                || payload.isForced()
+                || pushed == null
+                || pushed.size() != 1
+                || isTruncated(payload, pushed.size())
+                || !after.equals(pushed.get(pushed.size() - 1).getSha())) {
+            return false;
+        }
+
+        // payloads list the commits oldest first
+        List<ChangelogContext.Commit> commits = new ArrayList<>(pushed.size());
+        for (int i = pushed.size() - 1; i >= 0; i--) {
+            GHEventPayload.Push.PushCommit commit = pushed.get(i);
+            List<String> paths = new ArrayList<>();
+            addAll(paths, commit.getAdded());
+            addAll(paths, commit.getRemoved());
+            addAll(paths, commit.getModified());
+            commits.add(new ChangelogContext.Commit(
+                    commit.getSha(), commit.getAuthor() == null ? null : commit.getAuthor().getEmail(), paths));
+        }
+        Key key = new Key(repository.toLowerCase(Locale.ENGLISH), ref.substring(BRANCH_PREFIX.length()), after);
+        synchronized (entries) {
+            entries.put(key, new Push(before, commits, System.nanoTime()));
+        }
+        return true;
+    }
+
+    /**
+     * @param repository full name of the repository, as given by {@link #fullName}
+     * @param sinceId last built commit
+     * @return the commits between both commits, newest first, {@code null} if the pushes of the range were not all
+     *     received
+     */
+    @CheckForNull
+    ChangelogContext.Changelog lookup(
+            @CheckForNull String repository,
+            @NonNull String head,
+            @CheckForNull String sinceId,
+            @NonNull String tip) {
+        if (maxSize <= 0 || repository == null || sinceId == null || sinceId.equals(tip)) {
+            return null;
+        }
+        List<ChangelogContext.Commit> commits = new ArrayList<>();
+        String at = tip;
+        synchronized (entries) {
+            for (int pushes = 0; pushes < MAX_PUSHES && !at.equals(sinceId); pushes++) {
+                Push push = entries.get(new Key(repository, head, at));
+                if (push == null || System.nanoTime() - push.created >= ttlNanos) {
+                    return null;
+                }
+                commits.addAll(push.commits);
+                at = push.before;
+            }
+        }
+        return at.equals(sinceId) ? new ChangelogContext.Changelog(commits, true) : null;
+    }
+
+    /**
+     * @return the full name, {@code owner/name} in lower case, of the repository a git source clones, {@code null} for
+     *     other sources
+     */
+    @CheckForNull
+    static String fullName(@NonNull SCMSource source) {
+        return source instanceof AbstractGitSCMSource ? fullName(((AbstractGitSCMSource) source).getRemote()) : null;
+    }
+
+    @CheckForNull
+    static String fullName(@CheckForNull String remote) {
+        Matcher matcher = remote == null ? null : FULL_NAME.matcher(remote.trim());
+        if (matcher == null || !matcher.find()) {
+            return null;
+        }
+        // GitHub names are not case sensitive
+        return (matcher.group(1) + "/" + matcher.group(2)).toLowerCase(Locale.ENGLISH);
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static boolean isTruncated(@NonNull GHEventPayload.Push payload, int commits) {
+        // webhooks do not send the size of the push, only the events API does
+        return payload.getSize() > 0 ? commits < payload.getSize() : commits >= MAX_PAYLOAD_COMMITS;
+    }
+
+    private static void addAll(@NonNull List<String> paths, @CheckForNull List<String> more) {
+        if (more != null) {
+            paths.addAll(more);
+        }
+    }
+
+    private static final class Push {
+        private final String before;
+        private final List<ChangelogContext.Commit> commits;
+        private final long created;
+
+        private Push(String before, List<ChangelogContext.Commit> commits, long created) {
+            this.before = before;
+            this.commits = Collections.unmodifiableList(commits);
+            this.created = created;
+        }
+    }
+
+    /**
+     * Identifies a push by the repository, the branch and its new tip.
+     */
+    private static final class Key {
+        private final String repository;
+        private final String head;
+        private final String after;
+
+        private Key(@NonNull String repository, @NonNull String head, @NonNull String after) {
+            this.repository = repository;
+            this.head = head;
+            this.after = after;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return repository.equals(that.repository) && head.equals(that.head) && after.equals(that.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repository, head, after);
+        }
+    }
+}
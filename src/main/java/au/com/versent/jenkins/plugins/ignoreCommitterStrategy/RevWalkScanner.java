@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * Walks the commits of a changeset directly in a repository, without rendering and parsing a textual changelog.
+ * <p>
+ * Only the commit headers are parsed, to read the author ident. The paths changed by a commit are only diffed against
+ * its first parent when the visitor asks for them. Like the changelog produced by
+ * {@link jenkins.plugins.git.GitSCMFileSystem#changesSince}, merge commits are not visited, unless only the first
+ * parent of each commit is followed.
+ *
+ * @param <D> type of the decision returned by the visitor
+ */
+final class RevWalkScanner<D> implements CommitScan<D> {
+
+    private final Visitor<D> visitor;
+    private final int maxCommits;
+    private final long maxBytes;
+
+    @CheckForNull
+    private D decision;
+
+    @CheckForNull
+    private Limit limitReached;
+
+    private boolean firstParent;
+    private boolean skipMerges = true;
+
+    private int commits;
+    private long bytes;
+    private long parseNanos;
+
+    /**
+     * @param visitor called for every commit, newest first, returns the decision or {@code null} to continue
+     * @param maxCommits maximum number of commits handed to the visitor, {@code 0} for no limit
+     * @param maxBytes maximum number of raw commit bytes read, {@code 0} for no limit. Unlike the textual changelog
+     *     this leaves out the changed paths, so a limit lets more commits through than with {@link ChangelogScanner}.
+     */
+    RevWalkScanner(@NonNull Visitor<D> visitor, int maxCommits, long maxBytes) {
+        this.visitor = visitor;
+        this.maxCommits = maxCommits;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Only follow the first parent of each commit, leaving out the commits brought in by merges
+     *
+     * @param skipMerges whether the merge commits themselves are left out too
+     * @return this scanner
+     */
+    @NonNull
+    RevWalkScanner<D> firstParent(boolean skipMerges) {
+        this.firstParent = true;
+        this.skipMerges = skipMerges;
+        return this;
+    }
+
+    /**
+     * Walk the commits reachable from {@code tip} but not from {@code since}
+     *
+     * @param since excluded commit, {@code null} to walk the whole history
+     */
+    void scan(@NonNull Repository repository, @NonNull ObjectId tip, @CheckForNull ObjectId since)
+            throws IOException {
+        try (RevWalk walk = new RevWalk(repository)) {
+            scan(walk, tip, since);
+        }
+    }
+
+    /**
+     * Walk the commits reachable from {@code tip} but not from {@code since} with a walk that may have been used
+     * before, reusing the commits it already parsed
+     *
+     * @param since excluded commit, {@code null} to walk the whole history
+     */
+    void scan(@NonNull RevWalk walk, @NonNull ObjectId tip, @CheckForNull ObjectId since) throws IOException {
+        if (tip.equals(since)) {
+            return;
+        }
+        walk.reset();
+        walk.setFirstParent(firstParent);
+        walk.setRevFilter(skipMerges ? RevFilter.NO_MERGES : RevFilter.ALL);
+        walk.markStart(walk.parseCommit(tip));
+        if (since != null) {
+            walk.markUninteresting(walk.parseCommit(since));
+        }
+        for (RevCommit commit = walk.next(); commit != null; commit = walk.next()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Commit walk was cancelled");
+            }
+            if (maxCommits > 0 && commits >= maxCommits) {
+                limitReached = Limit.COMMITS;
+                return;
+            }
+            if (commit.getRawBuffer() == null) {
+                // the walk disposes of the body of the commits excluded from an earlier range
+                walk.parseBody(commit);
+            }
+            int size = commit.getRawBuffer().length;
+            if (maxBytes > 0 && bytes + size > maxBytes) {
+                limitReached = Limit.BYTES;
+                return;
+            }
+            bytes += size;
+            commits++;
+            long start = System.nanoTime();
+            String author = commit.getAuthorIdent().getEmailAddress();
+            parseNanos += System.nanoTime() - start;
+            RevCommit visited = commit;
+            try {
+                decision = visitor.visit(visited.name(), author, () -> paths(walk, visited));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (decision != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the paths changed by a commit since its first parent
+     */
+    @NonNull
+    private static List<String> paths(@NonNull RevWalk walk, @NonNull RevCommit commit) {
+        List<String> paths = new ArrayList<>();
+        try (TreeWalk diff = new TreeWalk(walk.getObjectReader())) {
+            diff.setRecursive(true);
+            diff.setFilter(TreeFilter.ANY_DIFF);
+            if (commit.getParentCount() == 0) {
+                diff.addTree(new EmptyTreeIterator());
+            } else {
+                RevCommit parent = commit.getParent(0);
+                walk.parseHeaders(parent);
+                diff.addTree(parent.getTree());
+            }
+            diff.addTree(commit.getTree());
+            while (diff.next()) {
+                paths.add(diff.getPathString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return paths;
+    }
+
+    @Override
+    @CheckForNull
+    public D getDecision() {
+        return decision;
+    }
+
+    @Override
+    @CheckForNull
+    public Limit getLimitReached() {
+        return limitReached;
+    }
+
+    @Override
+    public int getCommits() {
+        return commits;
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos;
+    }
+}
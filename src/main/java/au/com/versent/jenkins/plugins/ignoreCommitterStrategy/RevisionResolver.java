@@ -0,0 +1,251 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
+import jenkins.util.SystemProperties;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Maps revisions that are not git revisions, such as the pull request revisions of the hosting plugins, to the commit
+ * they stand for.
+ * <p>
+ * Git revisions, and change request revisions whose head revision is exposed by their hosting plugin, are resolved from
+ * their type. Revisions of other types are expected to start their string form with the commit hash, merge revisions
+ * following it with the hash of their target. Revisions naming an abbreviated commit are resolved once through their
+ * source, which may fetch the repository, and the full hash is kept for the next evaluations. Concurrent evaluations of
+ * the same revision wait for the resolution in flight. Revisions that do not name a commit are only retried after
+ * {@link #NEGATIVE_TTL_MILLIS}.
+ */
+final class RevisionResolver {
+
+    static final int MAX_SIZE = SystemProperties.getInteger(RevisionResolver.class.getName() + ".maxSize", 1000);
+
+    static final long NEGATIVE_TTL_MILLIS = SystemProperties.getLong(
+            RevisionResolver.class.getName() + ".negativeTtlMillis", TimeUnit.MINUTES.toMillis(1));
+
+    /**
+     * Git abbreviates commits to at least seven digits by default, shorter ones are too likely to be something else.
+     */
+    private static final Pattern HASH = Pattern.compile("(?<![0-9a-fA-F])[0-9a-fA-F]{7,40}(?![0-9a-fA-F])");
+
+    /**
+     * Accessors of the hosting plugins for the head of a change request revision, which scm-api does not define:
+     * Bitbucket has {@code getPull()}, GitLab and Gitea have {@code getOrigin()} and GitHub has {@code getPullHash()}.
+     */
+    private static final List<String> HEAD_ACCESSORS = List.of("getPull", "getOrigin", "getPullHash");
+
+    private static final RevisionResolver INSTANCE = new RevisionResolver(MAX_SIZE, NEGATIVE_TTL_MILLIS);
+
+    private final int maxSize;
+    private final long negativeTtlNanos;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Resolutions in flight, guarded by {@link #entries}.
+     */
+    private final Map<String, CompletableFuture<String>> resolving = new HashMap<>();
+
+    RevisionResolver(int maxSize, long negativeTtlMillis) {
+        this.maxSize = maxSize;
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > RevisionResolver.this.maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    static RevisionResolver get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Find the commit a revision stands for
+     *
+     * @return the full commit hash, {@code null} if the revision does not name a commit of the source
+     */
+    @CheckForNull
+    String resolve(@NonNull SCMSource source, @NonNull SCMRevision revision, @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        String typed = hash(revision);
+        if (typed != null) {
+            return typed;
+        }
+        String text = revision.toString();
+        if (text.length() >= 40 && ObjectId.isId(text.substring(0, 40))) {
+            return text.substring(0, 40);
+        }
+
+        String key = source.getId() + "\n" + revision.getClass().getName() + "\n" + text;
+        CompletableFuture<String> resolution;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && (entry.hash != null || System.nanoTime() - entry.created < negativeTtlNanos)) {
+                return entry.hash;
+            }
+            resolution = resolving.get(key);
+            if (resolution == null) {
+                resolving.put(key, new CompletableFuture<>());
+            }
+        }
+        if (resolution != null) {
+            return await(resolution, text);
+        }
+
+        String hash;
+        try {
+            hash = resolve(source, text, listener);
+        } catch (Throwable t) {
+            // failures are not kept, the next evaluation tries again
+            synchronized (entries) {
+                resolving.remove(key).completeExceptionally(t);
+            }
+            throw t;
+        }
+        synchronized (entries) {
+            if (maxSize > 0) {
+                entries.put(key, new Entry(hash, System.nanoTime()));
+            }
+            resolving.remove(key).complete(hash);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the commit of a git revision, or of the head of a change request revision whose hosting plugin exposes
+     *     it, {@code null} for revisions of other types
+     */
+    @CheckForNull
+    static String hash(@NonNull SCMRevision revision) {
+        if (revision instanceof AbstractGitSCMSource.SCMRevisionImpl) {
+            return ((AbstractGitSCMSource.SCMRevisionImpl) revision).getHash();
+        }
+        if (!(revision instanceof ChangeRequestSCMRevision)) {
+            return null;
+        }
+        for (String accessor : HEAD_ACCESSORS) {
+            Object head;
+            try {
+                head = revision.getClass().getMethod(accessor).invoke(revision);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                continue;
+            }
+            if (head instanceof SCMRevision && head != revision) {
+                String hash = hash((SCMRevision) head);
+                if (hash != null) {
+                    return hash;
+                }
+            } else if (head instanceof String && ObjectId.isId((String) head)) {
+                return ((String) head).toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wait for a resolution started by another evaluation
+     */
+    @CheckForNull
+    private static String await(@NonNull CompletableFuture<String> resolution, @NonNull String text)
+            throws IOException, InterruptedException {
+        try {
+            return resolution.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Could not resolve revision " + text, e.getCause());
+        }
+    }
+
+    /**
+     * Resolve the first commit named in the string form of a revision
+     */
+    @CheckForNull
+    private static String resolve(@NonNull SCMSource source, @NonNull String text, @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        String candidate = candidate(text);
+        if (candidate == null || candidate.length() == 40) {
+            return candidate;
+        }
+        listener.getLogger().printf("Resolving abbreviated commit %s%n", candidate);
+        SCMRevision resolved = source.fetch(candidate, listener, source.getOwner());
+        if (resolved instanceof AbstractGitSCMSource.SCMRevisionImpl) {
+            String hash = ((AbstractGitSCMSource.SCMRevisionImpl) resolved).getHash();
+            // a branch or tag named like the candidate is not the commit we look for
+            if (hash.toLowerCase(Locale.ENGLISH).startsWith(candidate.toLowerCase(Locale.ENGLISH))) {
+                return hash;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the first full or abbreviated commit hash of a text, {@code null} if there is none
+     */
+    @CheckForNull
+    static String candidate(@NonNull String text) {
+        Matcher matcher = HASH.matcher(text);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final long created;
+
+        private Entry(String hash, long created) {
+            this.hash = hash;
+            this.created = created;
+        }
+    }
+}
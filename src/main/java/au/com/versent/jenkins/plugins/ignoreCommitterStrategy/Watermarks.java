@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import jenkins.util.SystemProperties;
+
+/**
+ * Per head record of the last evaluated revision range and what was found in it.
+ * <p>
+ * The decision only depends on whether the range contains a decisive commit, so once a range has been evaluated the
+ * next scan of the same head only has to read the commits added on top of the recorded tip.
+ */
+final class Watermarks {
+
+    static final int MAX_SIZE = SystemProperties.getInteger(Watermarks.class.getName() + ".maxSize", 10000);
+
+    private static final Watermarks INSTANCE = new Watermarks(MAX_SIZE);
+
+    private final int maxSize;
+    private final Map<Key, Watermark> watermarks;
+
+    Watermarks(int maxSize) {
+        this.maxSize = maxSize;
+        this.watermarks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Watermark> eldest) {
+                return size() > Watermarks.this.maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    static Watermarks get() {
+        return INSTANCE;
+    }
+
+    @CheckForNull
+    Watermark lookup(@NonNull Key key) {
+        synchronized (watermarks) {
+            return watermarks.get(key);
+        }
+    }
+
+    void store(@NonNull Key key, @NonNull Watermark watermark) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (watermarks) {
+            watermarks.put(key, watermark);
+        }
+    }
+
+    void remove(@NonNull Key key) {
+        synchronized (watermarks) {
+            watermarks.remove(key);
+        }
+    }
+
+    int size() {
+        synchronized (watermarks) {
+            return watermarks.size();
+        }
+    }
+
+    /**
+     * Result of a complete evaluation of the range {@code base..tip}.
+     */
+    static final class Watermark {
+        private final String base;
+        private final String tip;
+        private final Decision decisive;
+
+        /**
+         * @param base lower bound of the range, {@code null} when the whole history was evaluated
+         * @param tip last evaluated commit
+         * @param decisive the decision of the first decisive commit in the range, {@code null} if there was none
+         */
+        Watermark(@CheckForNull String base, @NonNull String tip, @CheckForNull Decision decisive) {
+            this.base = base;
+            this.tip = tip;
+            this.decisive = decisive;
+        }
+
+        @CheckForNull
+        String getBase() {
+            return base;
+        }
+
+        @NonNull
+        String getTip() {
+            return tip;
+        }
+
+        @CheckForNull
+        Decision getDecisive() {
+            return decisive;
+        }
+    }
+
+    /**
+     * Identifies a head evaluated with a given strategy configuration.
+     */
+    static final class Key {
+        private final String sourceId;
+        private final String head;
+        private final int configHash;
+
+        Key(@NonNull String sourceId, @NonNull String head, int configHash) {
+            this.sourceId = sourceId;
+            this.head = head;
+            this.configHash = configHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return configHash == that.configHash && sourceId.equals(that.sourceId) && head.equals(that.head);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceId, head, configHash);
+        }
+    }
+}
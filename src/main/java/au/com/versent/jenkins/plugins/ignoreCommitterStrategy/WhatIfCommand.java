@@ -0,0 +1,245 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.cli.CLICommand;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jenkins.branch.Branch;
+import jenkins.branch.BranchBuildStrategy;
+import jenkins.branch.BranchProjectFactory;
+import jenkins.branch.BranchSource;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.Jenkins;
+import jenkins.model.TopLevelItem;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.GitBranchSCMHead;
+import jenkins.plugins.git.GitSCMFileSystem;
+import jenkins.scm.api.SCMFileSystem;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMRevisionAction;
+import jenkins.scm.api.SCMSource;
+import org.eclipse.jgit.lib.ObjectId;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Tells which builds of a multibranch project an {@link IgnoreCommitterStrategy} would have skipped, by replaying the
+ * ranges between its consecutive builds, or the pushes given on the standard input, through a
+ * {@link WhatIfSimulation}.
+ * <p>
+ * Without rule options the strategy configured on each git source of the project is replayed.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class WhatIfCommand extends CLICommand {
+
+    @Argument(metaVar = "JOB", usage = "Full name of the multibranch project", required = true)
+    public String job;
+
+    @Option(name = "--ignored-authors", usage = "Ignored authors to try instead of the configured strategy")
+    public String ignoredAuthors;
+
+    @Option(
+            name = "--allow-build-if-not-excluded-author",
+            usage = "Build when at least one author is not ignored, with --ignored-authors or --ignored-paths")
+    public boolean allowBuildIfNotExcludedAuthor;
+
+    @Option(name = "--ignored-paths", usage = "Ignored paths to try instead of the configured strategy")
+    public String ignoredPaths;
+
+    @Option(name = "--traversal", usage = "Commits scanned, with --ignored-authors or --ignored-paths")
+    public IgnoreCommitterStrategy.Traversal traversal;
+
+    @Option(name = "--builds", usage = "Number of most recent builds of each branch to replay, 100 by default")
+    public int builds = 100;
+
+    @Option(
+            name = "--stdin",
+            usage = "Replay the pushes read from the standard input, one 'branch before after' line each, "
+                    + "'-' as before for a new branch")
+    public boolean readStdin;
+
+    @Override
+    public String getName() {
+        return "ignore-committer-strategy-what-if";
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Tells which builds of a multibranch project the Ignore Committer Strategy would have skipped";
+    }
+
+    @Override
+    protected int run() throws Exception {
+        MultiBranchProject<?, ?> project = Jenkins.get().getItemByFullName(job, MultiBranchProject.class);
+        if (project == null) {
+            throw new AbortException("No multibranch project named " + job);
+        }
+        project.checkPermission(Item.CONFIGURE);
+        List<WhatIfSimulation.Push> given = readStdin ? readPushes() : null;
+
+        for (BranchSource branchSource : project.getSources()) {
+            SCMSource source = branchSource.getSource();
+            if (!(source instanceof AbstractGitSCMSource)) {
+                stdout.printf("Skipping source %s, only git sources can be replayed%n", source.getId());
+                continue;
+            }
+            IgnoreCommitterStrategy strategy = strategy(branchSource);
+            if (strategy == null) {
+                stdout.printf("Skipping source %s, it has no Ignore Committer Strategy%n", source.getId());
+                continue;
+            }
+            List<WhatIfSimulation.Push> pushes = given != null ? given : history(project, source.getId(), builds);
+            if (pushes.isEmpty()) {
+                stdout.printf("No pushes to replay for source %s%n", source.getId());
+                continue;
+            }
+
+            // the repository fetched for the last push normally holds the commits of the earlier ones too
+            WhatIfSimulation.Push newest = pushes.get(pushes.size() - 1);
+            String tip = newest.getAfter().name();
+            SCMHead head = new GitBranchSCMHead(newest.getBranch());
+            SCMRevision revision = new AbstractGitSCMSource.SCMRevisionImpl(head, tip);
+            WhatIfSimulation simulation = new WhatIfSimulation(strategy);
+            try (FileSystemPool.Lease lease = IgnoreCommitterStrategy.lease(source, head, revision, tip)) {
+                SCMFileSystem fileSystem = IgnoreCommitterStrategy.fileSystem(lease, tip, null);
+                if (!(fileSystem instanceof GitSCMFileSystem)) {
+                    throw new AbortException("Error retrieving the repository of source " + source.getId());
+                }
+                stdout.printf("Replaying %d pushes of source %s%n", pushes.size(), source.getId());
+                ((GitSCMFileSystem) fileSystem)
+                        .invoke(repository -> simulation.run(repository, pushes))
+                        .print(stdout);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the strategy given by the options, else the one configured on the source, {@code null} if none
+     */
+    @CheckForNull
+    private IgnoreCommitterStrategy strategy(@NonNull BranchSource branchSource) {
+        if (ignoredAuthors != null || ignoredPaths != null) {
+            IgnoreCommitterStrategy strategy = new IgnoreCommitterStrategy(
+                    ignoredAuthors == null ? "" : ignoredAuthors, allowBuildIfNotExcludedAuthor);
+            strategy.setIgnoredPaths(ignoredPaths);
+            strategy.setTraversal(traversal);
+            return strategy;
+        }
+        for (BranchBuildStrategy strategy : branchSource.getBuildStrategies()) {
+            if (strategy instanceof IgnoreCommitterStrategy) {
+                return (IgnoreCommitterStrategy) strategy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the pushes read from the standard input, in the order given
+     */
+    @NonNull
+    private List<WhatIfSimulation.Push> readPushes() throws Exception {
+        List<WhatIfSimulation.Push> pushes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stdin, getClientCharset()));
+        int number = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            number++;
+            String[] fields = line.trim().split("\\s+");
+            if (fields[0].isEmpty() || fields[0].startsWith("#")) {
+                continue;
+            }
+            if (fields.length != 3
+                    || !(fields[1].equals("-") || ObjectId.isId(fields[1]))
+                    || !ObjectId.isId(fields[2])) {
+                throw new AbortException(
+                        "Line " + number + " is not a 'branch before after' push with full commit hashes: " + line);
+            }
+            ObjectId before = fields[1].equals("-") ? null : ObjectId.fromString(fields[1]);
+            pushes.add(new WhatIfSimulation.Push(fields[0], before, ObjectId.fromString(fields[2])));
+        }
+        return pushes;
+    }
+
+    /**
+     * Ranges between the consecutive builds of every branch of a source, the first build of a branch is left out
+     * since its range depended on the target branch at the time
+     *
+     * @return the pushes, oldest first within a branch
+     */
+    @NonNull
+    private static <P extends Job<P, R> & TopLevelItem, R extends Run<P, R>> List<WhatIfSimulation.Push> history(
+            @NonNull MultiBranchProject<P, R> project, @NonNull String sourceId, int builds)
+            throws IOException, InterruptedException {
+        BranchProjectFactory<P, R> factory = project.getProjectFactory();
+        SCMSource source = project.getSCMSource(sourceId);
+        List<WhatIfSimulation.Push> pushes = new ArrayList<>();
+        if (source == null) {
+            return pushes;
+        }
+        for (P branchJob : project.getItems()) {
+            if (!factory.isProject(branchJob)) {
+                continue;
+            }
+            Branch branch = factory.getBranch(branchJob);
+            if (!sourceId.equals(branch.getSourceId())) {
+                continue;
+            }
+            List<ObjectId> revisions = new ArrayList<>();
+            for (R run : branchJob.getBuilds().limit(builds + 1)) {
+                SCMRevision revision = SCMRevisionAction.getRevision(source, run);
+                String id =
+                        revision == null ? null : RevisionResolver.get().resolve(source, revision, TaskListener.NULL);
+                if (id != null) {
+                    revisions.add(ObjectId.fromString(id));
+                }
+            }
+            // builds are listed newest first
+            Collections.reverse(revisions);
+            for (int i = 1; i < revisions.size(); i++) {
+                if (!revisions.get(i).equals(revisions.get(i - 1))) {
+                    pushes.add(new WhatIfSimulation.Push(
+                            branch.getHead().getName(), revisions.get(i - 1), revisions.get(i)));
+                }
+            }
+        }
+        return pushes;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Replays a list of historical pushes against the rules of a strategy, to see which builds it would have skipped.
+ * <p>
+ * All the pushes are evaluated with a single walk of the repository, so a commit is only parsed once however many
+ * ranges it belongs to, and the rules are only matched once per commit. Watermarks, caches and the decision store are
+ * left untouched.
+ */
+final class WhatIfSimulation {
+
+    private final IgnoreCommitterStrategy strategy;
+
+    WhatIfSimulation(@NonNull IgnoreCommitterStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Evaluate every push in the given order
+     *
+     * @return the outcome of every push, grouped by branch
+     */
+    @NonNull
+    Report run(@NonNull Repository repository, @NonNull List<Push> pushes) throws IOException {
+        CommitScan.Visitor<Decision> rules = strategy.visitor();
+        // verdict of every commit matched so far, empty when the commit did not settle its changeset
+        Map<String, Optional<Decision>> verdicts = new HashMap<>();
+        CommitScan.Visitor<Decision> visitor = (commitId, authorEmail, paths) -> verdicts
+                .computeIfAbsent(commitId, id -> Optional.ofNullable(rules.visit(id, authorEmail, paths)))
+                .orElse(null);
+        Report report = new Report();
+        try (RevWalk walk = new RevWalk(repository)) {
+            for (Push push : pushes) {
+                RevWalkScanner<Decision> scanner = IgnoreCommitterStrategy.scanner(
+                        visitor, strategy.getMaxCommits(), strategy.getMaxBytes(), strategy.getTraversal());
+                try {
+                    scanner.scan(walk, push.getAfter(), push.getBefore());
+                } catch (MissingObjectException e) {
+                    report.add(push, null, "Commit " + e.getObjectId().name() + " is not in the repository");
+                    continue;
+                }
+                Decision decision = strategy.conclude(scanner, TaskListener.NULL);
+                report.add(push, decision.isBuild(), decision.getReason());
+            }
+        }
+        report.matched = verdicts.size();
+        return report;
+    }
+
+    /**
+     * A branch moving from one commit to another
+     */
+    static final class Push {
+        private final String branch;
+        private final ObjectId before;
+        private final ObjectId after;
+
+        /**
+         * @param before previous tip of the branch, {@code null} to evaluate its whole history
+         */
+        Push(@NonNull String branch, @CheckForNull ObjectId before, @NonNull ObjectId after) {
+            this.branch = branch;
+            this.before = before;
+            this.after = after;
+        }
+
+        @NonNull
+        String getBranch() {
+            return branch;
+        }
+
+        @CheckForNull
+        ObjectId getBefore() {
+            return before;
+        }
+
+        @NonNull
+        ObjectId getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return branch + " " + (before == null ? "" : before.abbreviate(8).name() + "..")
+                    + after.abbreviate(8).name();
+        }
+    }
+
+    /**
+     * Outcome of a single push
+     */
+    static final class Outcome {
+        private final Push push;
+        private final Boolean build;
+        private final String reason;
+
+        private Outcome(@NonNull Push push, @CheckForNull Boolean build, @NonNull String reason) {
+            this.push = push;
+            this.build = build;
+            this.reason = reason;
+        }
+
+        @NonNull
+        Push getPush() {
+            return push;
+        }
+
+        /**
+         * @return whether the push would have been built, {@code null} if it could not be evaluated
+         */
+        @CheckForNull
+        Boolean getBuild() {
+            return build;
+        }
+
+        @NonNull
+        String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Outcomes of the simulated pushes, grouped by branch
+     */
+    static final class Report {
+        private final Map<String, List<Outcome>> branches = new TreeMap<>();
+        private int matched;
+
+        private void add(@NonNull Push push, @CheckForNull Boolean build, @NonNull String reason) {
+            branches.computeIfAbsent(push.getBranch(), b -> new ArrayList<>()).add(new Outcome(push, build, reason));
+        }
+
+        /**
+         * @return the outcomes of a branch in the order its pushes were given
+         */
+        @NonNull
+        List<Outcome> getOutcomes(@NonNull String branch) {
+            return branches.getOrDefault(branch, Collections.emptyList());
+        }
+
+        /**
+         * @return the number of pushes that would have been built, or skipped with {@code false}, or could not be
+         *     evaluated with {@code null}
+         */
+        int count(@CheckForNull Boolean build) {
+            int count = 0;
+            for (List<Outcome> outcomes : branches.values()) {
+                count += count(outcomes, build);
+            }
+            return count;
+        }
+
+        /**
+         * @return the number of distinct commits the rules were matched against
+         */
+        int getMatched() {
+            return matched;
+        }
+
+        private static int count(@NonNull List<Outcome> outcomes, @CheckForNull Boolean build) {
+            int count = 0;
+            for (Outcome outcome : outcomes) {
+                if (Objects.equals(outcome.getBuild(), build)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Write every outcome, followed by the totals of every branch
+         */
+        void print(@NonNull PrintStream out) {
+            for (List<Outcome> outcomes : branches.values()) {
+                for (Outcome outcome : outcomes) {
+                    Boolean build = outcome.getBuild();
+                    out.printf(
+                            "%s: %s, %s%n",
+                            outcome.getPush(),
+                            build == null ? "not evaluated" : build ? "build" : "skip",
+                            outcome.getReason());
+                }
+            }
+            out.println();
+            for (Map.Entry<String, List<Outcome>> branch : branches.entrySet()) {
+                List<Outcome> outcomes = branch.getValue();
+                out.printf(
+                        "%s: %d pushes, %d built, %d skipped, %d not evaluated%n",
+                        branch.getKey(),
+                        outcomes.size(),
+                        count(outcomes, true),
+                        count(outcomes, false),
+                        count(outcomes, null));
+            }
+            out.printf(
+                    "Total: %d pushes, %d built, %d skipped, %d not evaluated, %d distinct commits matched%n",
+                    count(true) + count(false) + count(null), count(true), count(false), count(null), matched);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Looking up commit authors in ignore lists of growing size, half of the authors being ignored with a different case
+ * or surrounding whitespace.
+ */
+@JmhBenchmark
+public class AuthorMatcherBenchmark {
+
+    private static final int AUTHORS = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Authors {
+
+        @Param({"1", "100", "10000"})
+        public int ignoredAuthors;
+
+        String[] authors;
+        List<String> list;
+        AuthorMatcher matcher;
+
+        @Setup
+        public void setUp() {
+            String ignored = IntStream.range(0, ignoredAuthors)
+                    .mapToObj(i -> "ignored" + i + "@example.com")
+                    .collect(Collectors.joining(","));
+            list = Arrays.stream(ignored.split(","))
+                    .map(e -> e.trim().toLowerCase())
+                    .collect(Collectors.toList());
+            matcher = AuthorMatcher.compile(ignored);
+            authors = IntStream.range(0, AUTHORS)
+                    .mapToObj(i -> i % 2 == 0
+                            ? " Ignored" + (i % ignoredAuthors) + "@Example.com "
+                            : "author" + i + "@example.com")
+                    .toArray(String[]::new);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AUTHORS)
+    public void listContains(Authors authors, Blackhole blackhole) {
+        for (String author : authors.authors) {
+            blackhole.consume(authors.list.contains(author.trim().toLowerCase()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AUTHORS)
+    public void authorMatcher(Authors authors, Blackhole blackhole) {
+        for (String author : authors.authors) {
+            blackhole.consume(authors.matcher.matches(author));
+        }
+    }
+}
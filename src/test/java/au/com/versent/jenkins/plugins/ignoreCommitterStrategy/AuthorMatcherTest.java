@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+class AuthorMatcherTest {
+
+    @Test
+    void matchesIgnoringCaseAndWhitespace() {
+        AuthorMatcher matcher = AuthorMatcher.compile(" Jenkins-CI@example.com , svc-ci@example.com.au");
+        assertThat(matcher.matches("jenkins-ci@example.com"), is(true));
+        assertThat(matcher.matches("  JENKINS-ci@EXAMPLE.com\t"), is(true));
+        assertThat(matcher.matches("svc-ci@example.com.au"), is(true));
+        assertThat(matcher.matches("svc-ci@example.com"), is(false));
+        assertThat(matcher.matches("jenkins-ci@example.co"), is(false));
+        assertThat(matcher.size(), is(2));
+    }
+
+    @Test
+    void emptyEntriesNeverMatch() {
+        assertThat(AuthorMatcher.compile("").matches(""), is(false));
+        assertThat(AuthorMatcher.compile(null).matches("a@example.com"), is(false));
+        assertThat(AuthorMatcher.compile("a@example.com,,").matches(" "), is(false));
+        assertThat(AuthorMatcher.compile(" , ").size(), is(0));
+    }
+
+    @Test
+    void matchesEveryEntryOfALargeList() {
+        StringBuilder authors = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            authors.append("Bot-").append(i).append("@example.com,");
+        }
+        AuthorMatcher matcher = AuthorMatcher.compile(authors.toString());
+        assertThat(matcher.size(), is(2000));
+        for (int i = 0; i < 2000; i++) {
+            assertThat(matcher.matches("bot-" + i + "@example.com"), is(true));
+            assertThat(matcher.matches("bot-" + i + "@example.org"), is(false));
+        }
+    }
+
+    @Test
+    void keepsConfigurationOrderForDisplay() {
+        assertThat(
+                AuthorMatcher.compile("b@example.com, A@example.com").toString(),
+                is("[b@example.com, a@example.com]"));
+    }
+
+    @Test
+    void matchesDomainsAndTheirSubdomains() {
+        AuthorMatcher matcher = AuthorMatcher.compile("@corp.example");
+        assertThat(matcher.matches("svc@corp.example"), is(true));
+        assertThat(matcher.matches("svc@build.CORP.example"), is(true));
+        assertThat(matcher.matches("svc@othercorp.example"), is(false));
+        assertThat(matcher.matches("svc@corp.example.org"), is(false));
+    }
+
+    @Test
+    void matchesGlobs() {
+        AuthorMatcher matcher =
+                AuthorMatcher.compile("*@noreply.github.com, svc-*@corp.example, renovate[bot]@*, ci-??@*.example");
+        assertThat(matcher.matches("12345+someone@noreply.github.com"), is(true));
+        assertThat(matcher.matches("someone@sub.noreply.github.com"), is(false));
+        assertThat(matcher.matches("SVC-deploy@corp.example"), is(true));
+        assertThat(matcher.matches("svc@corp.example"), is(false));
+        assertThat(matcher.matches("renovate[bot]@users.noreply.example"), is(true));
+        assertThat(matcher.matches("renovateb@example.com"), is(false));
+        assertThat(matcher.matches("ci-01@build.example"), is(true));
+        assertThat(matcher.matches("ci-001@build.example"), is(false));
+    }
+
+    @Test
+    void matchesRegularExpressionsContainingCommas() {
+        AuthorMatcher matcher = AuthorMatcher.compile("a@example.com, /ci-\\d{2,3}@example\\.com/ ,b@example.com");
+        assertThat(matcher.size(), is(3));
+        assertThat(matcher.matches("CI-123@example.com"), is(true));
+        assertThat(matcher.matches("ci-1@example.com"), is(false));
+        assertThat(matcher.matches("b@example.com"), is(true));
+    }
+
+    @Test
+    void splitsOnNewLines() {
+        String authors = "bot@example.com\r\n@corp.example, svc-*@example.com\n\n/ci-\\d,2/\nlast@example.com";
+        assertThat(
+                AuthorMatcher.split(authors),
+                contains("bot@example.com", "@corp.example", "svc-*@example.com", "/ci-\\d,2/", "last@example.com"));
+        AuthorMatcher matcher = AuthorMatcher.compile("bot@example.com\nrenovate@example.com");
+        assertThat(matcher.size(), is(2));
+        assertThat(matcher.matches("renovate@example.com"), is(true));
+        assertThat(AuthorMatcher.validate("bot@example.com\n/ci-(/\n@").size(), is(2));
+    }
+
+    @Test
+    void keepsTheGroupsOfEachRegularExpressionToItself() {
+        AuthorMatcher matcher = AuthorMatcher.compile("/(b)\\1@y/, /(a)\\1@x/, /(?<n>c)\\k<n>@z/, /(?<n>d)@w/");
+        assertThat(matcher.size(), is(4));
+        assertThat(matcher.matches("aa@x"), is(true));
+        assertThat(matcher.matches("ab@x"), is(false));
+        assertThat(matcher.matches("bb@y"), is(true));
+        assertThat(matcher.matches("cc@z"), is(true));
+        assertThat(matcher.matches("d@w"), is(true));
+    }
+
+    @Test
+    void skipsInvalidRules() {
+        AuthorMatcher matcher = AuthorMatcher.compile("/ci-(/, a@example.com, @");
+        assertThat(matcher.size(), is(1));
+        assertThat(matcher.matches("a@example.com"), is(true));
+        assertThat(AuthorMatcher.validate("/ci-(/, a@example.com, @").size(), is(2));
+        assertThat(AuthorMatcher.validate("*@example.com, /.*bot/").size(), is(0));
+    }
+
+    @Test
+    void matchesAmongManyRulesOfEveryKind() {
+        StringBuilder rules = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            rules.append("bot-").append(i).append("@example.com,");
+            rules.append("@team").append(i).append(".example,");
+            rules.append("svc-*@corp").append(i).append(".example,");
+            rules.append("app").append(i).append("[bot]@*,");
+        }
+        AuthorMatcher matcher = AuthorMatcher.compile(rules.toString());
+        assertThat(matcher.size(), is(4000));
+        for (int i = 0; i < 1000; i += 7) {
+            assertThat(matcher.matches("bot-" + i + "@example.com"), is(true));
+            assertThat(matcher.matches("dev@ci.team" + i + ".example"), is(true));
+            assertThat(matcher.matches("svc-x@corp" + i + ".example"), is(true));
+            assertThat(matcher.matches("app" + i + "[bot]@example.com"), is(true));
+            assertThat(matcher.matches("dev@corp" + i + ".example"), is(false));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import hudson.plugins.git.GitChangeLogParser;
+import hudson.plugins.git.GitChangeSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reading a whole changelog in which no commit is decisive, the worst case of an evaluation.
+ * <p>
+ * {@link #parseThenMatch} is the original path: the changelog is buffered, parsed into change sets, and every author is
+ * looked up in a list. {@link #streamingScan} is the {@link ChangelogScanner} with an {@link AuthorMatcher}.
+ */
+@JmhBenchmark
+public class ChangelogBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Changelog {
+
+        @Param({"10", "1000", "100000"})
+        public int commits;
+
+        @Param({"1", "100", "10000"})
+        public int ignoredAuthors;
+
+        byte[] bytes;
+        String ignored;
+        AuthorMatcher matcher;
+
+        @Setup
+        public void setUp() {
+            bytes = ChangelogScannerTest.changelog(commits).getBytes(StandardCharsets.UTF_8);
+            ignored = IntStream.range(0, ignoredAuthors)
+                    .mapToObj(i -> "ignored" + i + "@example.com")
+                    .collect(Collectors.joining(","));
+            matcher = AuthorMatcher.compile(ignored);
+        }
+    }
+
+    @Benchmark
+    public boolean parseThenMatch(Changelog changelog) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(changelog.bytes);
+
+        GitChangeLogParser parser = new GitChangeLogParser(true);
+        List<GitChangeSet> logs = parser.parse(new ByteArrayInputStream(out.toByteArray()));
+        List<String> ignoredAuthorsList = Arrays.stream(changelog.ignored.split(","))
+                .map(e -> e.trim().toLowerCase())
+                .collect(Collectors.toList());
+
+        for (GitChangeSet log : logs) {
+            if (ignoredAuthorsList.contains(log.getAuthorEmail().trim().toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public Boolean streamingScan(Changelog changelog) throws IOException {
+        ChangelogScanner<Boolean> scanner =
+                new ChangelogScanner<>(log -> changelog.matcher.matches(log.getAuthorEmail()) ? Boolean.TRUE : null);
+        scanner.write(changelog.bytes);
+        scanner.close();
+        return scanner.getDecision();
+    }
+}
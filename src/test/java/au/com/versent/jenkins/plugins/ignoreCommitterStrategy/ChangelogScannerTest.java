@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hudson.plugins.git.GitChangeSet;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ChangelogScannerTest {
+
+    static String changelog(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String author = "author" + i + "@example.com";
+            sb.append("commit ").append(String.format("%040x", i + 1)).append('\n');
+            sb.append("tree ").append(String.format("%040x", 0)).append('\n');
+            sb.append("author Author ").append(i).append(" <").append(author).append("> 1500000000 +0000\n");
+            sb.append("committer Author ").append(i).append(" <").append(author).append("> 1500000000 +0000\n");
+            sb.append('\n');
+            sb.append("    commit ").append(i).append('\n');
+            sb.append('\n');
+            sb.append(":100644 100644 ")
+                    .append(String.format("%040x", 0))
+                    .append(' ')
+                    .append(String.format("%040x", 0))
+                    .append(" M\tfile")
+                    .append(i)
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void visitsEveryCommitInOrder() throws Exception {
+        List<String> authors = new ArrayList<>();
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(log -> {
+            authors.add(log.getAuthorEmail());
+            return null;
+        });
+        scanner.write(changelog(3).getBytes(StandardCharsets.UTF_8));
+        scanner.close();
+        assertThat(authors, contains("author0@example.com", "author1@example.com", "author2@example.com"));
+        assertThat(scanner.getCommits(), is(3));
+        assertThat(scanner.getDecision(), nullValue());
+    }
+
+    @Test
+    void stopsAtFirstDecisiveCommit() throws Exception {
+        List<GitChangeSet> seen = new ArrayList<>();
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(log -> {
+            seen.add(log);
+            return seen.size() == 2 ? Boolean.FALSE : null;
+        });
+        byte[] bytes = changelog(1000).getBytes(StandardCharsets.UTF_8);
+        assertThrows(ChangelogScanner.ScanStoppedException.class, () -> {
+            for (int i = 0; i < bytes.length; i += 64) {
+                scanner.write(bytes, i, Math.min(64, bytes.length - i));
+            }
+        });
+        scanner.close();
+        assertThat(seen.size(), is(2));
+        assertThat(scanner.getDecision(), is(false));
+    }
+
+    @Test
+    void acceptsSingleByteWrites() throws Exception {
+        List<String> commits = new ArrayList<>();
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(log -> {
+            commits.add(log.getCommitId());
+            return null;
+        });
+        for (byte b : changelog(2).getBytes(StandardCharsets.UTF_8)) {
+            scanner.write(b);
+        }
+        scanner.close();
+        assertThat(commits, contains(String.format("%040x", 1), String.format("%040x", 2)));
+    }
+
+    @Test
+    void stopsAtCommitLimit() throws Exception {
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(log -> null, 5, 0);
+        byte[] bytes = changelog(100).getBytes(StandardCharsets.UTF_8);
+        assertThrows(ChangelogScanner.ScanStoppedException.class, () -> scanner.write(bytes));
+        scanner.close();
+        assertThat(scanner.getCommits(), is(5));
+        assertThat(scanner.getLimitReached(), is(CommitScan.Limit.COMMITS));
+        assertThat(scanner.getDecision(), nullValue());
+    }
+
+    @Test
+    void stopsAtByteLimitWithoutPartialCommit() throws Exception {
+        String log = changelog(10);
+        int commitLength = changelog(1).length();
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(l -> null, 0, commitLength * 3L + 10);
+        assertThrows(
+                ChangelogScanner.ScanStoppedException.class,
+                () -> scanner.write(log.getBytes(StandardCharsets.UTF_8)));
+        scanner.close();
+        assertThat(scanner.getCommits(), is(3));
+        assertThat(scanner.getLimitReached(), is(CommitScan.Limit.BYTES));
+    }
+}
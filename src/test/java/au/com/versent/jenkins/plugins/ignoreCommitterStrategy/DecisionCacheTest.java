@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+
+class DecisionCacheTest {
+
+    private static DecisionCache.Key key(String head, int configHash) {
+        return new DecisionCache.Key("source", head, "curr", "last", configHash);
+    }
+
+    @Test
+    void returnsStoredDecisionAndCountsHits() {
+        DecisionCache cache = new DecisionCache(10, 60_000);
+        Decision decision = Decision.of(true, "build");
+        assertThat(cache.lookup(key("main", 1)), nullValue());
+        cache.store(key("main", 1), decision);
+        assertThat(cache.lookup(key("main", 1)), sameInstance(decision));
+        assertThat(cache.lookup(key("main", 2)), nullValue());
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    void probingDoesNotCount() {
+        DecisionCache cache = new DecisionCache(10, 60_000);
+        assertThat(cache.contains(key("main", 1)), is(false));
+        cache.store(key("main", 1), Decision.of(true, "build"));
+        assertThat(cache.contains(key("main", 1)), is(true));
+        assertThat(cache.getHits(), is(0L));
+        assertThat(cache.getMisses(), is(0L));
+        assertThat(EvaluationMetricsAction.toJson(cache).getLong("hits"), is(0L));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        DecisionCache cache = new DecisionCache(2, 60_000);
+        cache.store(key("a", 0), Decision.of(true, "a"));
+        cache.store(key("b", 0), Decision.of(true, "b"));
+        cache.lookup(key("a", 0));
+        cache.store(key("c", 0), Decision.of(true, "c"));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.lookup(key("b", 0)), nullValue());
+        assertThat(cache.lookup(key("a", 0)).getReason(), is("a"));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        DecisionCache cache = new DecisionCache(10, 0);
+        cache.store(key("main", 0), Decision.of(false, "skip"));
+        assertThat(cache.lookup(key("main", 0)), nullValue());
+        assertThat(cache.size(), is(0));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class DecisionLogTest {
+
+    private static DecisionLog.Record record(String head) {
+        Decision decision = Decision.ofCommit(false, "abc", "skip %s", head);
+        EvaluationMetrics.Timings timings = new EvaluationMetrics.Timings();
+        timings.add(EvaluationMetrics.Phase.MATCH, 2_000_000);
+        return new DecisionLog.Record(
+                "source", head, "curr", null, EvaluationMetrics.Outcome.SKIP, false, "skip " + head, decision, timings);
+    }
+
+    private static List<String> heads(List<DecisionLog.Record> records) {
+        List<String> heads = new ArrayList<>();
+        for (DecisionLog.Record record : records) {
+            heads.add(record.getHead());
+        }
+        return heads;
+    }
+
+    @Test
+    void keepsTheMostRecentRecordsOfEveryJob() {
+        DecisionLog log = new DecisionLog(2, 10);
+        log.add("job", record("a"));
+        log.add("job", record("b"));
+        log.add("job", record("c"));
+        log.add("other", record("d"));
+        assertThat(heads(log.getRecords("job")), contains("c", "b"));
+        assertThat(heads(log.getRecords("other")), contains("d"));
+        assertThat(log.getRecords("missing"), empty());
+    }
+
+    @Test
+    void dropsTheLeastRecentlyEvaluatedJobs() {
+        DecisionLog log = new DecisionLog(2, 1);
+        log.add("job", record("a"));
+        log.add("other", record("b"));
+        assertThat(log.getRecords("job"), empty());
+        assertThat(heads(log.getRecords("other")), contains("b"));
+    }
+
+    @Test
+    void servesRecordsAsJson() {
+        JSONObject json = DecisionLogAction.toJson(List.of(record("main")))
+                .getJSONArray("records")
+                .getJSONObject(0);
+        assertThat(json.getString("head"), is("main"));
+        assertThat(json.getString("outcome"), is("skip"));
+        assertThat(json.getString("commit"), is("abc"));
+        assertThat(json.getJSONObject("phasesMillis").getDouble("match"), is(2.0));
+        assertThat(json.has("lastBuiltRevision"), is(false));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DecisionStoreTest {
+
+    @TempDir
+    private File home;
+
+    private static String sha(int i) {
+        return String.format("%040x", i);
+    }
+
+    private static DecisionCache.Key key(String head, int i) {
+        return new DecisionCache.Key("source", head, sha(i + 1), sha(i), 1);
+    }
+
+    @Test
+    void survivesReopening() {
+        File file = new File(home, "store.log");
+        DecisionStore store = new DecisionStore(file, 1 << 20);
+        store.store(key("main", 1), Decision.of(false, "Changeset contains ignored author %s", "bot@example.com"));
+        store.storeChangelog(
+                "range",
+                List.of(
+                        new ChangelogContext.Commit(sha(3), "Jane@Example.com"),
+                        new ChangelogContext.Commit(sha(2), "bot@example.com")));
+        store.close();
+
+        store = new DecisionStore(file, 1 << 20);
+        Decision decision = store.lookup(key("main", 1));
+        assertThat(decision.isBuild(), is(false));
+        assertThat(decision.getReason(), is("Changeset contains ignored author bot@example.com"));
+        assertThat(store.lookup(key("other", 1)), nullValue());
+        List<ChangelogContext.Commit> changelog = store.lookupChangelog("range");
+        assertThat(changelog.size(), is(2));
+        assertThat(changelog.get(0).getId(), is(sha(3)));
+        assertThat(changelog.get(0).getAuthorEmail(), is("jane@example.com"));
+        assertThat(store.getCommitCount(), is(2));
+        store.close();
+    }
+
+    @Test
+    void storesCommitsWithoutAuthorEmail() {
+        DecisionStore store = new DecisionStore(new File(home, "store.log"), 1 << 20);
+        store.storeChangelog(
+                "range",
+                List.of(
+                        new ChangelogContext.Commit(sha(3), null),
+                        new ChangelogContext.Commit(sha(2), "bot@example.com")));
+        List<ChangelogContext.Commit> changelog = store.lookupChangelog("range");
+        assertThat(changelog.size(), is(2));
+        assertThat(changelog.get(0).getAuthorEmail(), is(""));
+        assertThat(AuthorMatcher.compile("bot@example.com").matches(changelog.get(0).getAuthorEmail()), is(false));
+        assertThat(changelog.get(1).getAuthorEmail(), is("bot@example.com"));
+        store.close();
+    }
+
+    @Test
+    void dropsTornWrites() throws IOException {
+        File file = new File(home, "store.log");
+        DecisionStore store = new DecisionStore(file, 1 << 20);
+        store.store(key("main", 1), Decision.of(true, "build"));
+        long size = store.getSize();
+        store.close();
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(size);
+            out.write(new byte[] {'D', 0, 0, 0, 50, 1, 2});
+        }
+
+        store = new DecisionStore(file, 1 << 20);
+        assertThat(store.lookup(key("main", 1)).getReason(), is("build"));
+        assertThat(store.getSize(), is(size));
+        assertThat(file.length(), is(size));
+        store.close();
+    }
+
+    @Test
+    void compactionKeepsTheMostRecentRecords() {
+        File file = new File(home, "store.log");
+        DecisionStore store = new DecisionStore(file, 1 << 20);
+        for (int i = 0; i < 12000; i++) {
+            store.store(key("branch-" + i, i), Decision.of(true, "reason %d", i));
+        }
+        store.storeChangelog("recent", List.of(new ChangelogContext.Commit(sha(5), "dev@example.com")));
+        store.compact();
+        assertThat(store.getSize(), lessThanOrEqualTo(1L << 19));
+        assertThat(store.lookup(key("branch-11999", 11999)).getReason(), is("reason 11999"));
+        assertThat(store.lookupChangelog("recent").get(0).getAuthorEmail(), is("dev@example.com"));
+        assertThat(store.lookup(key("branch-0", 0)), nullValue());
+        store.store(key("main", 1), Decision.of(false, "after compaction"));
+        store.close();
+
+        // the compacted generation is picked up again
+        store = new DecisionStore(file, 1 << 20);
+        assertThat(store.lookup(key("main", 1)).getReason(), is("after compaction"));
+        assertThat(store.lookup(key("branch-11999", 11999)).getReason(), is("reason 11999"));
+        store.close();
+    }
+
+    @Test
+    void refusesRecordsOnceFull() {
+        DecisionStore store = new DecisionStore(new File(home, "store.log"), 1 << 20, 1024);
+        for (int i = 0; i < 100; i++) {
+            store.store(key("branch-" + i, i), Decision.of(true, "reason %d", i));
+        }
+        assertThat(store.getSize(), lessThanOrEqualTo(1024L));
+        assertThat(store.lookup(key("branch-99", 99)), nullValue());
+
+        store.compact();
+        store.store(key("main", 1), Decision.of(false, "after compaction"));
+        assertThat(store.lookup(key("main", 1)).getReason(), is("after compaction"));
+        store.close();
+    }
+}
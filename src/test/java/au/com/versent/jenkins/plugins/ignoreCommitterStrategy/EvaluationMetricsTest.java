@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class EvaluationMetricsTest {
+
+    private static EvaluationMetrics.Timings timings(long fileSystemMillis) {
+        EvaluationMetrics.Timings timings = new EvaluationMetrics.Timings();
+        timings.add(EvaluationMetrics.Phase.FILE_SYSTEM, TimeUnit.MILLISECONDS.toNanos(fileSystemMillis));
+        return timings;
+    }
+
+    @Test
+    void computesPercentilesOverTheLastSamples() {
+        EvaluationMetrics metrics = new EvaluationMetrics(100, 10);
+        for (int i = 1; i <= 200; i++) {
+            metrics.record("repo", timings(i));
+        }
+        EvaluationMetrics.Snapshot snapshot = metrics.snapshot().get("repo");
+        assertThat(snapshot.getEvaluations(), is(200L));
+        assertThat(snapshot.getPercentile(EvaluationMetrics.Phase.FILE_SYSTEM, 0.5), is(150.0));
+        assertThat(snapshot.getPercentile(EvaluationMetrics.Phase.FILE_SYSTEM, 0.99), is(199.0));
+        assertThat(snapshot.getPercentile(EvaluationMetrics.Phase.FILE_SYSTEM, 1.0), is(200.0));
+        assertThat(snapshot.getPercentile(EvaluationMetrics.Phase.MATCH, 0.5), is(0.0));
+    }
+
+    @Test
+    void keepsRepositoriesSeparateAndBounded() {
+        EvaluationMetrics metrics = new EvaluationMetrics(10, 2);
+        metrics.record("a", timings(1));
+        metrics.record("b", timings(2));
+        metrics.record("c", timings(3));
+        assertThat(metrics.snapshot().keySet(), contains(EvaluationMetrics.ALL, "b", "c"));
+        assertThat(metrics.snapshotAll().getEvaluations(), is(3L));
+        assertThat(metrics.snapshot().get("c").getPercentile(EvaluationMetrics.Phase.FILE_SYSTEM, 0.5), is(3.0));
+    }
+
+    @Test
+    void keysRepositoriesWithoutCredentials() {
+        EvaluationMetrics metrics = new EvaluationMetrics(10, 10);
+        metrics.record("https://user:t0k@n@github.com/example/widgets.git", timings(1));
+        metrics.record("https://github.com/example/widgets.git", timings(2));
+        metrics.record("git@github.com:example/widgets.git", timings(3));
+        assertThat(
+                metrics.snapshot().keySet(),
+                contains(
+                        EvaluationMetrics.ALL,
+                        "https://github.com/example/widgets.git",
+                        "git@github.com:example/widgets.git"));
+        assertThat(metrics.snapshot().get("https://github.com/example/widgets.git").getEvaluations(), is(2L));
+    }
+
+    @Test
+    void countsOutcomes() {
+        EvaluationMetrics metrics = new EvaluationMetrics(10, 10);
+        metrics.record(EvaluationMetrics.Outcome.of(true));
+        metrics.record(EvaluationMetrics.Outcome.of(false));
+        metrics.record(EvaluationMetrics.Outcome.of(false));
+        metrics.record(EvaluationMetrics.Outcome.ERROR_FALLBACK);
+        metrics.recordCached();
+        assertThat(metrics.getCount(EvaluationMetrics.Outcome.BUILD), is(1L));
+        assertThat(metrics.getCount(EvaluationMetrics.Outcome.SKIP), is(2L));
+        assertThat(metrics.getCount(EvaluationMetrics.Outcome.ERROR_FALLBACK), is(1L));
+        assertThat(metrics.getCached(), is(1L));
+    }
+
+    @Test
+    void attributesScanTimeNotSpentParsingOrMatchingToChangesSince() {
+        ChangelogScanner<Boolean> scanner = new ChangelogScanner<>(log -> null);
+        EvaluationMetrics.Timings timings = new EvaluationMetrics.Timings();
+        timings.add(EvaluationMetrics.Phase.MATCH, 300);
+        timings.scanned(scanner, 1000);
+        assertThat(timings.get(EvaluationMetrics.Phase.CHANGES_SINCE), is(700L));
+    }
+}
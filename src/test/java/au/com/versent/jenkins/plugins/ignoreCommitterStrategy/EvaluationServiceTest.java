@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hudson.model.TaskListener;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class EvaluationServiceTest {
+
+    private static DecisionCache.Key key(String head) {
+        return new DecisionCache.Key("source", head, "curr", null, 0);
+    }
+
+    @Test
+    void deduplicatesEvaluationsOfTheSameRange() throws Exception {
+        EvaluationService service = new EvaluationService(4, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        EvaluationService.Evaluation evaluation = listener -> {
+            runs.incrementAndGet();
+            release.await();
+            listener.getLogger().println("evaluated");
+            return false;
+        };
+        Future<EvaluationService.Result> first = service.submit(key("main"), "repo", evaluation);
+        Future<EvaluationService.Result> second = service.submit(key("main"), "repo", evaluation);
+        assertThat(second, sameInstance(first));
+        assertThat(service.inFlight(key("main")), sameInstance(first));
+        release.countDown();
+
+        EvaluationService.Result result = first.get();
+        assertThat(result.isBuild(), is(false));
+        assertThat(runs.get(), is(1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskListener listener = new StreamTaskListener(out, StandardCharsets.UTF_8);
+        result.replay(listener);
+        assertThat(out.toString(StandardCharsets.UTF_8).trim(), is("evaluated"));
+    }
+
+    @Test
+    void limitsConcurrencyPerRepository() throws Exception {
+        EvaluationService service = new EvaluationService(8, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<EvaluationService.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(service.submit(key("head-" + i), "repo", listener -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return true;
+            }));
+        }
+        for (Future<EvaluationService.Result> future : futures) {
+            assertThat(future.get().isBuild(), is(true));
+        }
+        assertThat(peak.get(), lessThanOrEqualTo(2));
+        assertThat(service.getInFlightCount(), is(0));
+    }
+
+    @Test
+    void timeoutIncludesTheWaitForAPermit() throws Exception {
+        EvaluationService service = new EvaluationService(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Future<EvaluationService.Result> holder = service.submit(key("first"), "repo", listener -> {
+            release.await();
+            return true;
+        });
+        Future<EvaluationService.Result> queued = service.submit(key("second"), "repo", listener -> {
+            runs.incrementAndGet();
+            return false;
+        });
+        try {
+            // the permit is held for longer than the timeout, the queued evaluation never starts running
+            assertThrows(TimeoutException.class, () -> service.await(queued, 1));
+            assertThat(queued.isCancelled(), is(true));
+        } finally {
+            release.countDown();
+        }
+        assertThat(holder.get().isBuild(), is(true));
+        assertThat(runs.get(), is(0));
+    }
+
+    @Test
+    void timedOutCallerDoesNotCancelAnEvaluationOthersWaitFor() throws Exception {
+        EvaluationService service = new EvaluationService(4, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<EvaluationService.Result> evaluation = service.submit(key("main"), "repo", listener -> {
+            release.await();
+            return true;
+        });
+        CompletableFuture<EvaluationService.Result> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.await(evaluation, 0);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThrows(TimeoutException.class, () -> service.await(evaluation, 1));
+        assertThat(evaluation.isCancelled(), is(false));
+        release.countDown();
+        assertThat(other.get().isBuild(), is(true));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.scm.api.SCMFileSystem;
+import org.junit.jupiter.api.Test;
+
+class FileSystemPoolTest {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private SCMFileSystem build() {
+        builds.incrementAndGet();
+        return mock(SCMFileSystem.class);
+    }
+
+    @Test
+    void sharesFileSystemBetweenLeasesOfARepository() throws Exception {
+        FileSystemPool pool = new FileSystemPool(60_000);
+        SCMFileSystem first;
+        try (FileSystemPool.Lease lease = pool.acquire("repo", this::build)) {
+            first = lease.get();
+            assertThat(lease.isBuilt(), is(true));
+            try (FileSystemPool.Lease other = pool.acquire("repo", this::build)) {
+                assertThat(other.get(), sameInstance(first));
+                assertThat(other.isBuilt(), is(false));
+            }
+        }
+        try (FileSystemPool.Lease lease = pool.acquire("repo", this::build)) {
+            assertThat(lease.get(), sameInstance(first));
+        }
+        assertThat(builds.get(), is(1));
+        assertThat(pool.getOpenCount(), is(1));
+
+        pool.closeIdle();
+        assertThat(pool.getOpenCount(), is(0));
+        verify(first, times(1)).close();
+    }
+
+    @Test
+    void refreshReplacesTheSharedFileSystem() throws Exception {
+        FileSystemPool pool = new FileSystemPool(60_000);
+        try (FileSystemPool.Lease lease = pool.acquire("repo", this::build)) {
+            SCMFileSystem first = lease.get();
+            SCMFileSystem second = lease.refresh();
+            verify(first).close();
+            try (FileSystemPool.Lease other = pool.acquire("repo", this::build)) {
+                assertThat(other.get(), sameInstance(second));
+            }
+        }
+        assertThat(builds.get(), is(2));
+        assertThat(pool.getOpenCount(), is(1));
+        pool.closeIdle();
+    }
+
+    @Test
+    void refreshKeepsTheFileSystemOfOtherLeasesOpen() throws Exception {
+        FileSystemPool pool = new FileSystemPool(60_000);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (FileSystemPool.Lease lease = pool.acquire("repo", this::build)) {
+            SCMFileSystem first = lease.get();
+            Future<SCMFileSystem> reader = executor.submit(() -> {
+                try (FileSystemPool.Lease other = pool.acquire("repo", this::build)) {
+                    SCMFileSystem fileSystem = other.get();
+                    reading.countDown();
+                    // still reading while the first lease refreshes
+                    refreshed.await(10, TimeUnit.SECONDS);
+                    verify(fileSystem, never()).close();
+                    assertThat(other.get(), sameInstance(fileSystem));
+                    return fileSystem;
+                }
+            });
+            reading.await(10, TimeUnit.SECONDS);
+            SCMFileSystem second = lease.refresh();
+            verify(first, never()).close();
+            refreshed.countDown();
+
+            assertThat(reader.get(10, TimeUnit.SECONDS), sameInstance(first));
+            verify(first).close();
+            verify(second, never()).close();
+            try (FileSystemPool.Lease other = pool.acquire("repo", this::build)) {
+                assertThat(other.get(), sameInstance(second));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(pool.getOpenCount(), is(1));
+        pool.closeIdle();
+        assertThat(pool.getOpenCount(), is(0));
+    }
+
+    @Test
+    void unkeyedLeasesCloseOnRelease() throws Exception {
+        FileSystemPool pool = new FileSystemPool(60_000);
+        SCMFileSystem fileSystem;
+        try (FileSystemPool.Lease lease = pool.acquire(null, this::build)) {
+            fileSystem = lease.get();
+            assertThat(pool.getOpenCount(), is(1));
+        }
+        assertThat(pool.getOpenCount(), is(0));
+        verify(fileSystem).close();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import jenkins.branch.BranchSource;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.plugins.git.GitSampleRepoRule;
+import jenkins.plugins.git.junit.jupiter.WithGitSampleRepo;
+import jenkins.plugins.git.traits.BranchDiscoveryTrait;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+@WithGitSampleRepo
+class IgnoreCommitterStrategyPrefetchTest {
+
+    @Test
+    void prefetchedHeadsAreCountedOnce(JenkinsRule j, GitSampleRepoRule sampleRepo) throws Exception {
+        sampleRepo.init();
+        sampleRepo.write("Jenkinsfile", "echo 'prefetch'");
+        sampleRepo.git("add", "Jenkinsfile");
+        sampleRepo.git("commit", "--message=jenkinsfile");
+        sampleRepo.git("checkout", "-b", "feature");
+        sampleRepo.write("file", "feature");
+        sampleRepo.git("commit", "--all", "--message=feature");
+
+        WorkflowMultiBranchProject project = j.jenkins.createProject(WorkflowMultiBranchProject.class, "prefetch");
+        GitSCMSource source = new GitSCMSource(sampleRepo.toString());
+        source.setTraits(List.of(new BranchDiscoveryTrait()));
+        BranchSource branchSource = new BranchSource(source);
+        branchSource.setBuildStrategies(List.of(new IgnoreCommitterStrategy("gits@mplereporule", false)));
+        project.getSourcesList().add(branchSource);
+
+        EvaluationMetrics.get().clear();
+        DecisionCache.get().clear();
+        DecisionLog.get().clear();
+        boolean prefetch = EvaluationService.PREFETCH;
+        EvaluationService.PREFETCH = true;
+        try {
+            project.scheduleBuild2(0).getFuture().get();
+            j.waitUntilNoActivity();
+        } finally {
+            EvaluationService.PREFETCH = prefetch;
+        }
+
+        // the first head asked for submits both, the branch API then consumes them in flight or from the cache
+        assertThat(project.getItems().size(), is(2));
+        long decisions = 0;
+        for (EvaluationMetrics.Outcome outcome : EvaluationMetrics.Outcome.values()) {
+            decisions += EvaluationMetrics.get().getCount(outcome);
+        }
+        assertThat(decisions, is(2L));
+        assertThat(EvaluationMetrics.get().snapshotAll().getEvaluations(), is(2L));
+        assertThat(DecisionLog.get().getRecords(project.getFullName()).size(), is(2));
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import jenkins.branch.BranchSource;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.plugins.git.GitSampleRepoRule;
+import jenkins.plugins.git.junit.jupiter.WithGitSampleRepo;
+import jenkins.plugins.git.traits.BranchDiscoveryTrait;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+/**
+ * Indexes a multibranch project with hundreds of branches and a deep history, every branch being evaluated by the
+ * strategy, and compares the indexing time, peak heap and git operations per branch with a baseline.
+ * <p>
+ * Local only, run with {@code mvn test -Dtest=IgnoreCommitterStrategyScaleTest -DscaleTest=true}. The size can be
+ * changed with {@code -DscaleTest.branches}, {@code -DscaleTest.depth} and {@code -DscaleTest.branchCommits}, the
+ * baseline only applies to the default size. Measurements are written to {@code target/scale-report.properties}, in
+ * the format of the baseline and with the machine they were taken on. A measurement without a baseline value fails
+ * the run.
+ */
+@WithJenkins
+@WithGitSampleRepo
+@EnabledIfSystemProperty(named = "scaleTest", matches = "true")
+class IgnoreCommitterStrategyScaleTest {
+
+    private static final Logger LOGGER = Logger.getLogger(IgnoreCommitterStrategyScaleTest.class.getName());
+
+    private static final int BRANCHES = Integer.getInteger("scaleTest.branches", 200);
+    private static final int DEPTH = Integer.getInteger("scaleTest.depth", 1000);
+    private static final int BRANCH_COMMITS = Integer.getInteger("scaleTest.branchCommits", 5);
+
+    // author of the root commit made by GitSampleRepoRule, so every branch is walked down to it and skipped
+    private static final String IGNORED_AUTHOR = "gits@mplereporule";
+
+    @Test
+    void indexesLargeMultibranchProject(JenkinsRule j, GitSampleRepoRule sampleRepo) throws Exception {
+        sampleRepo.init();
+        sampleRepo.write("Jenkinsfile", "echo 'scale'");
+        sampleRepo.git("add", "Jenkinsfile");
+        sampleRepo.git("commit", "--message=jenkinsfile");
+        populate(new File(sampleRepo.toString()));
+
+        WorkflowMultiBranchProject project = j.jenkins.createProject(WorkflowMultiBranchProject.class, "scale");
+        GitSCMSource source = new GitSCMSource(sampleRepo.toString());
+        source.setTraits(List.of(new BranchDiscoveryTrait()));
+        BranchSource branchSource = new BranchSource(source);
+        branchSource.setBuildStrategies(List.of(new IgnoreCommitterStrategy(IGNORED_AUTHOR, false)));
+        project.getSourcesList().add(branchSource);
+
+        resetPeakHeap();
+        long builds = FileSystemPool.get().getBuildCount();
+        long start = System.nanoTime();
+        project.scheduleBuild2(0).getFuture().get();
+        j.waitUntilNoActivity();
+
+        Properties measured = new Properties();
+        measured.setProperty("machine", machine());
+        measured.setProperty("branches", Integer.toString(BRANCHES));
+        measured.setProperty("depth", Integer.toString(DEPTH));
+        measured.setProperty("indexingMillis", Long.toString(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        measured.setProperty("peakHeapMegabytes", Long.toString(peakHeap() >> 20));
+        measured.setProperty(
+                "gitOperationsPerBranch",
+                Double.toString((FileSystemPool.get().getBuildCount() - builds) / (double) (BRANCHES + 1)));
+        report(measured);
+
+        assertThat(project.getItems().size(), is(BRANCHES + 1));
+        for (WorkflowJob job : project.getItems()) {
+            assertThat(job.getName() + " was built", job.getLastBuild(), nullValue());
+        }
+
+        Properties baseline = new Properties();
+        try (InputStream in = getClass().getResourceAsStream(getClass().getSimpleName() + "/baseline.properties")) {
+            baseline.load(in);
+        }
+        if (!measured.getProperty("branches").equals(baseline.getProperty("branches"))
+                || !measured.getProperty("depth").equals(baseline.getProperty("depth"))) {
+            LOGGER.info("Scale differs from the baseline, not comparing");
+            return;
+        }
+        LOGGER.info(() -> "Comparing with the baseline measured on " + baseline.getProperty("machine"));
+        double tolerance = Double.parseDouble(baseline.getProperty("tolerance"));
+        for (String name : List.of("indexingMillis", "peakHeapMegabytes", "gitOperationsPerBranch")) {
+            String value = baseline.getProperty(name, "");
+            // a gate without a baseline would pass whatever the measurement
+            assertThat(
+                    "No baseline for " + name + ", copy it from target/scale-report.properties",
+                    value.isEmpty(),
+                    is(false));
+            double limit = Double.parseDouble(value) * tolerance;
+            assertThat(name + " regressed", Double.parseDouble(measured.getProperty(name)), lessThanOrEqualTo(limit));
+        }
+    }
+
+    /**
+     * Add a deep history to the default branch and fork the branches from its tip, written with JGit since running
+     * git once per commit would dominate the test
+     */
+    private static void populate(File root) throws Exception {
+        try (Repository repository =
+                        new FileRepositoryBuilder().setGitDir(new File(root, ".git")).build();
+                ObjectInserter inserter = repository.newObjectInserter()) {
+            RevCommit head = repository.parseCommit(repository.resolve(Constants.HEAD));
+            ObjectId trunk = commits(inserter, head.getTree(), head, "trunk", DEPTH);
+            inserter.flush();
+            update(repository, repository.getFullBranch(), trunk);
+            for (int b = 0; b < BRANCHES; b++) {
+                ObjectId tip = commits(inserter, head.getTree(), trunk, "branch" + b, BRANCH_COMMITS);
+                inserter.flush();
+                update(repository, Constants.R_HEADS + "branch-" + b, tip);
+            }
+        }
+    }
+
+    private static ObjectId commits(ObjectInserter inserter, ObjectId tree, ObjectId parent, String name, int count)
+            throws Exception {
+        ObjectId tip = parent;
+        for (int i = 0; i < count; i++) {
+            PersonIdent author = new PersonIdent(name + " " + i, name + "-" + (i % 50) + "@example.com");
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(tree);
+            commit.setParentId(tip);
+            commit.setAuthor(author);
+            commit.setCommitter(author);
+            commit.setMessage(name + " commit " + i + "\n");
+            tip = inserter.insert(commit);
+        }
+        return tip;
+    }
+
+    private static void update(Repository repository, String ref, ObjectId id) throws Exception {
+        RefUpdate update = repository.updateRef(ref);
+        update.setNewObjectId(id);
+        update.setForceUpdate(true);
+        update.update();
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * @return the machine the measurements are taken on, baselines from other machines are not comparable
+     */
+    private static String machine() {
+        Runtime runtime = Runtime.getRuntime();
+        return String.format(
+                "%s %s, %d processors, %d MB max heap, Java %s",
+                System.getProperty("os.name"),
+                System.getProperty("os.arch"),
+                runtime.availableProcessors(),
+                runtime.maxMemory() >> 20,
+                System.getProperty("java.version"));
+    }
+
+    private static void report(Properties measured) throws Exception {
+        measured.forEach((name, value) -> LOGGER.info(() -> name + " = " + value));
+        Path target = Paths.get("target");
+        Files.createDirectories(target);
+        try (OutputStream out = Files.newOutputStream(target.resolve("scale-report.properties"))) {
+            measured.store(out, "IgnoreCommitterStrategyScaleTest");
+        }
+    }
+}
@@ -58,4 +58,29 @@ class IgnoreCommitterStrategySimpleTest {
         strategy = new IgnoreCommitterStrategy(ignoredAuthors, allowBuildIfNotExcludedAuthor);
         assertThat(strategy.getAllowBuildIfNotExcludedAuthor(), is(allowBuildIfNotExcludedAuthor));
     }
+
+    @Test
+    void testScanLimitsDefaults() {
+        assertThat(strategy.getMaxCommits(), is(0));
+        assertThat(strategy.getMaxBytes(), is(0L));
+        assertThat(strategy.getCommitLimitFallback(), is(IgnoreCommitterStrategy.LimitFallback.SCANNED));
+        assertThat(strategy.getByteLimitFallback(), is(IgnoreCommitterStrategy.LimitFallback.SCANNED));
+        assertThat(strategy.isScanFromMergeBase(), is(false));
+    }
+
+    @Test
+    void testTimeoutDefaults() {
+        assertThat(strategy.getTimeoutSeconds(), is(0));
+        assertThat(strategy.isBuildOnTimeout(), is(true));
+        strategy.setTimeoutSeconds(-5);
+        assertThat(strategy.getTimeoutSeconds(), is(0));
+    }
+
+    @Test
+    void testNegativeScanLimitsMeanNoLimit() {
+        strategy.setMaxCommits(-1);
+        strategy.setMaxBytes(-1);
+        assertThat(strategy.getMaxCommits(), is(0));
+        assertThat(strategy.getMaxBytes(), is(0L));
+    }
 }
@@ -25,6 +25,9 @@ package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,8 +37,12 @@ import hudson.scm.SubversionSCM;
 import hudson.util.StreamTaskListener;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.plugins.git.GitRefSCMHead;
 import jenkins.plugins.git.GitRefSCMRevision;
 import jenkins.plugins.git.GitSCMSource;
@@ -45,6 +52,8 @@ import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMRevision;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
 import jenkins.scm.impl.SingleSCMSource;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -101,6 +110,8 @@ class IgnoreCommitterStrategyTest {
         lastSeen = previous;
         baos = new ByteArrayOutputStream();
         listener = new StreamTaskListener(baos, Charset.defaultCharset());
+        ChangelogContext.get().clear();
+        DecisionStore.get().clear();
     }
 
     private String getKnownAuthor() {
@@ -182,6 +193,354 @@ class IgnoreCommitterStrategyTest {
         assertFalse(result);
     }
 
+    @Test
+    void testCommitLimitFallbackBuild() {
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), true);
+        strategy.setMaxCommits(1);
+        strategy.setCommitLimitFallback(IgnoreCommitterStrategy.LimitFallback.BUILD);
+        boolean result = strategy.isAutomaticBuild(source, head, current, null, null, listener);
+        String msg = "the commit limit of 1 was reached";
+        assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+        assertTrue(result);
+    }
+
+    @Test
+    void testCommitLimitFallbackScanned() {
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), true);
+        strategy.setMaxCommits(1);
+        boolean result = strategy.isAutomaticBuild(source, head, current, null, null, listener);
+        String msg = "All commits in the changeset are made by excluded authors, build is false";
+        assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+        assertFalse(result);
+    }
+
+    @Test
+    void testByteLimitStopsTheScan() {
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), true);
+        strategy.setMaxBytes(1);
+        strategy.setByteLimitFallback(IgnoreCommitterStrategy.LimitFallback.BUILD);
+        boolean result = strategy.isAutomaticBuild(source, head, current, null, null, listener);
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, containsString("the byte limit of 1 was reached"));
+        assertThat(log, containsString("Fallback for the byte limit is to build"));
+        assertTrue(result);
+    }
+
+    @Test
+    void testMergeBaseTargetMovedSinceTheLastFetch() throws Exception {
+        sampleRepo.git("branch", "merge-base-target", commit1);
+        strategy = new IgnoreCommitterStrategy(KNOWN_AUTHOR, false);
+        strategy.setScanFromMergeBase(true);
+        strategy.setMergeBaseTarget("merge-base-target");
+        DecisionCache.get().clear();
+        assertFalse(strategy.isAutomaticBuild(source, head, current, null, null, listener));
+        assertThat(
+                baos.toString(Charset.defaultCharset()),
+                containsString("No last built revision, scanning commits since " + branchName + " left"));
+
+        // the target moves on, the repository shared with the first evaluation does not have it yet
+        sampleRepo.git("checkout", "merge-base-target");
+        sampleRepo.write("target", "target");
+        sampleRepo.git("add", "target");
+        sampleRepo.git("commit", "--message=target-moved");
+        String moved = sampleRepo.head();
+        sampleRepo.git("checkout", branchName);
+
+        DecisionCache.get().clear();
+        long builds = FileSystemPool.get().getBuildCount();
+        assertFalse(strategy.isAutomaticBuild(source, head, current, null, null, listener));
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, containsString(moved));
+        assertThat(log, containsString("Changeset contains ignored author " + KNOWN_AUTHOR + " (" + commit2 + ")"));
+        assertThat(log, not(containsString("Exception")));
+        assertThat(FileSystemPool.get().getBuildCount(), is(builds + 1));
+    }
+
+    @Test
+    void testMergeBaseTargetMissingFromTheRepository() {
+        String missing = "0123456789abcdef0123456789abcdef01234567";
+        MyChangeRequestSCMHead changeRequest = new MyChangeRequestSCMHead("PR-1", new GitRefSCMHead("target"));
+        SCMRevision target = new AbstractGitSCMSource.SCMRevisionImpl(changeRequest.getTarget(), missing);
+        SCMRevision tip = new MyChangeRequestSCMRevision(changeRequest, target, commit2);
+        strategy = new IgnoreCommitterStrategy(KNOWN_AUTHOR, false);
+        strategy.setScanFromMergeBase(true);
+        assertTrue(strategy.isAutomaticBuild(source, changeRequest, tip, null, null, listener));
+        assertThat(
+                baos.toString(Charset.defaultCharset()),
+                containsString("ERROR: Commit " + missing + " is missing from the repository of PR-1"));
+    }
+
+    @Test
+    void testRepeatedEvaluationIsCached() {
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), false);
+        assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        long hits = DecisionCache.get().getHits();
+        assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(DecisionCache.get().getHits(), is(hits + 1));
+        assertThat(
+                EvaluationMetricsAction.toJson(EvaluationMetrics.get())
+                        .getJSONObject("cache")
+                        .getLong("hits"),
+                is(hits + 1));
+        String msg = "allowBuildIfNotExcludedAuthor is false, therefore build is not required (cached)";
+        assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+    }
+
+    @Test
+    void testIncrementalEvaluationScansNewCommitsOnly() throws Exception {
+        strategy = new IgnoreCommitterStrategy(getUnknownAuthor(), false);
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+
+        sampleRepo.write("incremental", "incremental");
+        sampleRepo.git("add", "incremental");
+        sampleRepo.git("commit", "--message=incremental-commit");
+        SCMRevision next = new GitRefSCMRevision(head, sampleRepo.head());
+        assertTrue(strategy.isAutomaticBuild(source, head, next, previous, current, listener));
+        String msg = "Commits up to " + commit2 + " were already evaluated, scanning the new commits";
+        assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+    }
+
+    @Test
+    void testEvaluationTimeoutFallsBack() throws Exception {
+        strategy = new IgnoreCommitterStrategy(getUnknownAuthor(), true);
+        strategy.setTimeoutSeconds(1);
+        strategy.setBuildOnTimeout(false);
+        DecisionCache.get().clear();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<EvaluationService.Result> blocked =
+                EvaluationService.get().submit(strategy.key(source, head, current, previous), "timeout", l -> {
+                    release.await();
+                    return true;
+                });
+        try {
+            long timeouts = EvaluationService.get().getTimeouts();
+            assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+            assertThat(EvaluationService.get().getTimeouts(), is(timeouts + 1));
+            assertTrue(blocked.isCancelled());
+            String msg = "Evaluation of " + branchName + " did not finish within 1 seconds, build is false";
+            assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testEvaluationIsMeasured() {
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), true);
+        DecisionCache.get().clear();
+        long skipped = EvaluationMetrics.get().getCount(EvaluationMetrics.Outcome.SKIP);
+        long evaluations = EvaluationMetrics.get().snapshotAll().getEvaluations();
+        assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(EvaluationMetrics.get().getCount(EvaluationMetrics.Outcome.SKIP), is(skipped + 1));
+        EvaluationMetrics.Snapshot snapshot = EvaluationMetrics.get().snapshot().get(sampleRepo.toString());
+        assertTrue(snapshot.getCommits() > 0);
+        assertThat(EvaluationMetrics.get().snapshotAll().getEvaluations(), is(evaluations + 1));
+        assertTrue(EvaluationMetricsAction.toJson(EvaluationMetrics.get())
+                .getJSONObject("repositories")
+                .has(sampleRepo.toString()));
+    }
+
+    @Test
+    void testSharedIgnoredAuthorsList() {
+        IgnoredAuthorsConfiguration.get().setLists(List.of(new IgnoredAuthorList("bots", KNOWN_AUTHOR)));
+        strategy = new IgnoreCommitterStrategy("", false);
+        strategy.setIgnoredAuthorsList("bots");
+        boolean result = strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener);
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, containsString("Ignored authors list bots: 1 entries"));
+        assertThat(log, containsString("Changeset contains ignored author " + KNOWN_AUTHOR));
+        assertFalse(result);
+    }
+
+    @Test
+    void testChangelogSharedAcrossStrategies() throws Exception {
+        IgnoreCommitterStrategy first = new IgnoreCommitterStrategy("first@example.com", true);
+        IgnoreCommitterStrategy second = new IgnoreCommitterStrategy("second@example.com," + KNOWN_AUTHOR, false);
+        assertTrue(first.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(baos.toString(Charset.defaultCharset()), not(containsString("already read")));
+
+        baos.reset();
+        assertFalse(second.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, containsString("Using the 1 commits already read for this range"));
+        assertThat(log, containsString("Changeset contains ignored author " + KNOWN_AUTHOR + " (" + commit2 + ")"));
+
+        ChangelogContext.Changelog changelog = ChangelogContext.get().fetch(source, head, current, previous);
+        assertTrue(changelog.isComplete());
+        assertThat(changelog.getCommits().get(0).getId(), is(commit2));
+    }
+
+    @Test
+    void testIgnoredPaths() {
+        strategy = new IgnoreCommitterStrategy("", true);
+        strategy.setIgnoredPaths("docs/**\nfile");
+        assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, containsString("Ignored paths: docs/**, file"));
+        assertThat(log, containsString("only change ignored paths, build is false"));
+
+        IgnoreCommitterStrategy.USE_REV_WALK = false;
+        try {
+            strategy = new IgnoreCommitterStrategy("", false);
+            strategy.setIgnoredPaths("file");
+            assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+            assertThat(
+                    baos.toString(Charset.defaultCharset()),
+                    containsString("Changeset contains commit " + commit2 + " only changing ignored paths"));
+        } finally {
+            IgnoreCommitterStrategy.USE_REV_WALK = true;
+        }
+
+        strategy = new IgnoreCommitterStrategy("", true);
+        strategy.setIgnoredPaths("docs/**");
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+    }
+
+    @Test
+    void testDecidesFromPushPayload() throws Exception {
+        String json = PushPayloadsTest.fixture()
+                .replace("refs/heads/main", "refs/heads/" + branchName)
+                .replace(PushPayloadsTest.BEFORE, commit1)
+                .replace(PushPayloadsTest.AFTER, commit2);
+        PushPayloads.get().record(PushPayloadsTest.parse(json));
+        try {
+            // the payload answers without building a file system, the repository of the event is never fetched
+            SCMSource pushedSource = new GitSCMSource("https://github.com/" + PushPayloadsTest.REPOSITORY + ".git");
+            pushedSource.setOwner(source.getOwner());
+            strategy = new IgnoreCommitterStrategy("bot@example.com", true);
+            assertTrue(strategy.isAutomaticBuild(pushedSource, head, current, previous, lastSeen, listener));
+            String log = baos.toString(Charset.defaultCharset());
+            assertThat(log, containsString("Using the 1 commits of the push event"));
+            assertThat(log, containsString("Changeset contains non ignored author jane@example.com (" + commit2 + ")"));
+        } finally {
+            PushPayloads.get().clear();
+        }
+    }
+
+    @Test
+    void testPushOfAMergeIsDecidedLikeGit() throws Exception {
+        sampleRepo.git("checkout", "-b", "payload-merge", commit2);
+        sampleRepo.git("checkout", "-b", "payload-side", commit2);
+        sampleRepo.write("side", "side");
+        sampleRepo.git("add", "side");
+        sampleRepo.git("commit", "--message=side");
+        String side = sampleRepo.head();
+        sampleRepo.git("checkout", "payload-merge");
+        sampleRepo.git("-c", "user.email=merger@example.com", "merge", "--no-ff", "--message=merge", "payload-side");
+        String merge = sampleRepo.head();
+        sampleRepo.git("checkout", branchName);
+
+        GitRefSCMHead mergeHead = new GitRefSCMHead("payload-merge");
+        SCMRevision tip = new GitRefSCMRevision(mergeHead, merge);
+        SCMRevision base = new GitRefSCMRevision(mergeHead, commit2);
+        // the merged commit is ignored, git skips the merge commit of a non ignored author
+        strategy = new IgnoreCommitterStrategy(KNOWN_AUTHOR, true);
+        boolean fromGit = strategy.isAutomaticBuild(source, mergeHead, tip, base, base, listener);
+        assertFalse(fromGit);
+
+        String json = PushPayloadsTest.merge()
+                .replace("refs/heads/main", "refs/heads/payload-merge")
+                .replace(PushPayloadsTest.BEFORE, commit2)
+                .replace(PushPayloadsTest.FIRST, side)
+                .replace(PushPayloadsTest.AFTER, merge)
+                .replace("bot@example.com", KNOWN_AUTHOR)
+                .replace("jane@example.com", "merger@example.com");
+        try {
+            assertFalse(PushPayloads.get().record(PushPayloadsTest.parse(json)));
+            DecisionCache.get().clear();
+            DecisionStore.get().clear();
+            ChangelogContext.get().clear();
+            baos.reset();
+            assertThat(strategy.isAutomaticBuild(source, mergeHead, tip, base, base, listener), is(fromGit));
+            assertThat(baos.toString(Charset.defaultCharset()), not(containsString("of the push event")));
+        } finally {
+            PushPayloads.get().clear();
+        }
+    }
+
+    @Test
+    void testCommitWithoutAuthorEmail() throws Exception {
+        sampleRepo.git("checkout", "-b", "no-email", commit2);
+        sampleRepo.write("no-email", "no-email");
+        sampleRepo.git("add", "no-email");
+        sampleRepo.git("commit", "--author=Nobody <>", "--message=no-email");
+        String noEmail = sampleRepo.head();
+        sampleRepo.git("checkout", branchName);
+
+        GitRefSCMHead noEmailHead = new GitRefSCMHead("no-email");
+        SCMRevision tip = new GitRefSCMRevision(noEmailHead, noEmail);
+        SCMRevision base = new GitRefSCMRevision(noEmailHead, commit2);
+        strategy = new IgnoreCommitterStrategy("bot@example.com", true);
+        assertTrue(strategy.isAutomaticBuild(source, noEmailHead, tip, base, base, listener));
+        assertThat(
+                baos.toString(Charset.defaultCharset()),
+                containsString("Changeset contains non ignored author (no email) (" + noEmail + ")"));
+
+        // push events pass no email at all for commits without an author
+        Decision decision = strategy.visitor().visit(noEmail, null, () -> List.of());
+        assertTrue(decision.isBuild());
+        assertThat(decision.getReason(), containsString("non ignored author (no email)"));
+    }
+
+    @Test
+    void testDecisionsSurviveRestart() {
+        DecisionCache.get().clear();
+        strategy = new IgnoreCommitterStrategy("restart@example.com", false);
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+
+        // what is left after a restart
+        DecisionCache.get().clear();
+        ChangelogContext.get().clear();
+        baos.reset();
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(baos.toString(Charset.defaultCharset()), containsString("(cached)"));
+
+        baos.reset();
+        strategy = new IgnoreCommitterStrategy("restart@example.com," + KNOWN_AUTHOR, false);
+        assertFalse(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(
+                baos.toString(Charset.defaultCharset()),
+                containsString("Using the 1 commits already read for this range"));
+    }
+
+    @Test
+    void testVerbosityAndDecisionLog() {
+        Mockito.when(owner.getFullName()).thenReturn("decision-log");
+        DecisionLog.get().clear();
+        strategy = new IgnoreCommitterStrategy("quiet@example.com", false);
+        strategy.setVerbosity(IgnoreCommitterStrategy.Verbosity.QUIET);
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        assertThat(baos.toString(Charset.defaultCharset()), is(""));
+
+        strategy = new IgnoreCommitterStrategy("summary@example.com", true);
+        strategy.setVerbosity(IgnoreCommitterStrategy.Verbosity.SUMMARY);
+        assertTrue(strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener));
+        String log = baos.toString(Charset.defaultCharset());
+        assertThat(log, startsWith("Changeset contains non ignored author"));
+        assertThat(log, not(containsString("Ignored authors:")));
+
+        List<DecisionLog.Record> records = DecisionLog.get().getRecords("decision-log");
+        assertThat(records.size(), is(2));
+        assertThat(records.get(0).getOutcome(), is(EvaluationMetrics.Outcome.BUILD));
+        assertThat(records.get(0).getCommitId(), is(commit2));
+        assertThat(records.get(1).getCommitId(), nullValue());
+        assertTrue(records.get(1).getCommits() > 0);
+    }
+
+    @Test
+    void testTextualChangelogFallback() {
+        IgnoreCommitterStrategy.USE_REV_WALK = false;
+        try {
+            strategy = new IgnoreCommitterStrategy(getKnownAuthor(), false);
+            boolean result = strategy.isAutomaticBuild(source, head, current, previous, lastSeen, listener);
+            String msg = "Changeset contains ignored author " + KNOWN_AUTHOR + " (" + commit2 + ")";
+            assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
+            assertFalse(result);
+        } finally {
+            IgnoreCommitterStrategy.USE_REV_WALK = true;
+        }
+    }
+
     @Test
     void testSCMRevisionNotGitRefSCMRevision() {
         strategy = new IgnoreCommitterStrategy(getKnownAuthor(), false);
@@ -242,11 +601,25 @@ class IgnoreCommitterStrategyTest {
         strategy = new IgnoreCommitterStrategy(getKnownAuthor(), false);
         MySCMRevision myCurrent = new MySCMRevision(current.getHead(), "deed"); // Valid SHA1 but too short
         boolean result = strategy.isAutomaticBuild(source, head, myCurrent, myCurrent, myCurrent, listener);
-        String msg = "ERROR: Exception: java.lang.StringIndexOutOfBoundsException";
+        String msg = "Could not resolve revision deed to a commit";
         assertThat(baos.toString(Charset.defaultCharset()), containsString(msg));
         assertTrue(result);
     }
 
+    @Test
+    void testSCMRevisionNotGitRefSCMRevisionAbbreviated() {
+        RevisionResolver.get().clear();
+        strategy = new IgnoreCommitterStrategy(getKnownAuthor(), false);
+        MySCMRevision myCurrent = new MySCMRevision(current.getHead(), commit2.substring(0, 12));
+        MySCMRevision myPrevious = new MySCMRevision(current.getHead(), commit1);
+        boolean result = strategy.isAutomaticBuild(source, head, myCurrent, myPrevious, myPrevious, listener);
+        assertThat(
+                baos.toString(Charset.defaultCharset()),
+                containsString("Changeset contains ignored author " + KNOWN_AUTHOR));
+        assertFalse(result);
+        assertThat(RevisionResolver.get().size(), is(1));
+    }
+
     private static class MySCMRevision extends SCMRevision {
 
         private final String hash;
@@ -285,6 +658,52 @@ class IgnoreCommitterStrategyTest {
         }
     }
 
+    private static class MyChangeRequestSCMHead extends SCMHead implements ChangeRequestSCMHead {
+
+        private final SCMHead target;
+
+        MyChangeRequestSCMHead(String name, SCMHead target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public String getId() {
+            return getName();
+        }
+
+        @Override
+        public SCMHead getTarget() {
+            return target;
+        }
+    }
+
+    private static class MyChangeRequestSCMRevision extends ChangeRequestSCMRevision<MyChangeRequestSCMHead> {
+
+        private final String hash;
+
+        MyChangeRequestSCMRevision(MyChangeRequestSCMHead head, SCMRevision target, String hash) {
+            super(head, target);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equivalent(ChangeRequestSCMRevision<?> revision) {
+            return revision instanceof MyChangeRequestSCMRevision
+                    && hash.equals(((MyChangeRequestSCMRevision) revision).hash);
+        }
+
+        @Override
+        protected int _hashCode() {
+            return hash.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return hash;
+        }
+    }
+
     private abstract static class FakeSCMSourceOwner implements SCMSourceOwner {}
 
     // Incorrect value test case - null owner
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import hudson.util.FormValidation;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class IgnoredAuthorsConfigurationTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @Test
+    void compilesEachListOnce() {
+        IgnoredAuthorsConfiguration config = IgnoredAuthorsConfiguration.get();
+        config.setLists(List.of(new IgnoredAuthorList("bots", "bot@example.com, Renovate@example.com")));
+        AuthorMatcher bots = config.getMatcher("bots");
+        assertThat(bots.matches("renovate@example.com"), is(true));
+        assertThat(config.getMatcher("bots"), sameInstance(bots));
+        assertThat(config.getMatcher("missing"), nullValue());
+    }
+
+    @Test
+    void swapsTheIndexWhenListsAreEdited() {
+        IgnoredAuthorsConfiguration config = IgnoredAuthorsConfiguration.get();
+        config.setLists(List.of(new IgnoredAuthorList("bots", "bot@example.com")));
+        AuthorMatcher before = config.getMatcher("bots");
+        config.setLists(List.of(new IgnoredAuthorList("bots", "bot@example.com,other@example.com")));
+        AuthorMatcher after = config.getMatcher("bots");
+        assertThat(after, not(sameInstance(before)));
+        assertThat(before.matches("other@example.com"), is(false));
+        assertThat(after.matches("other@example.com"), is(true));
+    }
+
+    @Test
+    void changingAListChangesTheConfigurationHashOfStrategiesUsingIt() {
+        IgnoredAuthorsConfiguration config = IgnoredAuthorsConfiguration.get();
+        config.setLists(List.of(new IgnoredAuthorList("bots", "bot@example.com")));
+        IgnoreCommitterStrategy strategy = new IgnoreCommitterStrategy("", false);
+        strategy.setIgnoredAuthorsList("bots");
+        int hash = strategy.configHash();
+        config.setLists(List.of(new IgnoredAuthorList("bots", "other@example.com")));
+        assertThat(strategy.configHash(), not(is(hash)));
+    }
+
+    @Test
+    void validatesListsWithOneAuthorPerLine() {
+        IgnoredAuthorList.DescriptorImpl descriptor = new IgnoredAuthorList.DescriptorImpl();
+        assertThat(descriptor.doCheckAuthors("bot@example.com\n@corp.example\n").kind, is(FormValidation.Kind.OK));
+        FormValidation invalid = descriptor.doCheckAuthors("bot@example.com\n/ci-(/\nother@example.com");
+        assertThat(invalid.kind, is(FormValidation.Kind.ERROR));
+        assertThat(invalid.getMessage(), containsString("/ci-(/"));
+
+        IgnoredAuthorList list = new IgnoredAuthorList("bots", "bot@example.com\nrenovate@example.com");
+        assertThat(list.getMatcher().matches("renovate@example.com"), is(true));
+    }
+
+    @Test
+    void roundTripsThroughTheConfigurationPage() throws Exception {
+        IgnoredAuthorsConfiguration config = IgnoredAuthorsConfiguration.get();
+        config.setLists(List.of(new IgnoredAuthorList("bots", "bot@example.com")));
+        j.configRoundtrip();
+        assertThat(
+                IgnoredAuthorsConfiguration.get().getLists().stream()
+                        .map(IgnoredAuthorList::getName)
+                        .toList(),
+                contains("bots"));
+        assertThat(IgnoredAuthorsConfiguration.get().getMatcher("bots").matches("bot@example.com"), is(true));
+    }
+
+    @Test
+    void roundTripsWithoutLists() throws Exception {
+        IgnoredAuthorsConfiguration config = IgnoredAuthorsConfiguration.get();
+        config.setLists(List.of());
+        j.configRoundtrip();
+        assertThat(IgnoredAuthorsConfiguration.get().getLists().size(), is(0));
+        assertThat(IgnoredAuthorsConfiguration.get().getMatcher("bots"), nullValue());
+    }
+}
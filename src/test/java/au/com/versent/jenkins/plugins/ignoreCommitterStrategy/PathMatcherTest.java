@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PathMatcherTest {
+
+    @Test
+    void rulesWithoutSlashMatchAtAnyDepth() {
+        PathMatcher matcher = PathMatcher.compile("*.md, LICENSE");
+        assertThat(matcher.matches("README.md"), is(true));
+        assertThat(matcher.matches("docs/guide/CHANGES.md"), is(true));
+        assertThat(matcher.matches("README.mdx"), is(false));
+        assertThat(matcher.matches("sub/LICENSE"), is(true));
+        assertThat(matcher.size(), is(2));
+    }
+
+    @Test
+    void rulesWithSlashMatchFromTheRoot() {
+        PathMatcher matcher = PathMatcher.compile("docs/**\n/build\nsrc/**/generated/*.java");
+        assertThat(matcher.matches("docs/index.html"), is(true));
+        assertThat(matcher.matches("src/docs/index.html"), is(false));
+        assertThat(matcher.matches("build/output.txt"), is(true));
+        assertThat(matcher.matches("module/build"), is(false));
+        assertThat(matcher.matches("src/generated/A.java"), is(true));
+        assertThat(matcher.matches("src/main/java/generated/A.java"), is(true));
+        assertThat(matcher.matches("src/generated/sub/A.java"), is(false));
+    }
+
+    @Test
+    void onlyMatchesWhenEveryPathIsIgnored() {
+        PathMatcher matcher = PathMatcher.compile("docs/, *.md");
+        assertThat(matcher.matchesAll(List.of("docs/a.html", "README.md")), is(true));
+        assertThat(matcher.matchesAll(List.of("docs/a.html", "pom.xml")), is(false));
+        assertThat(matcher.matchesAll(List.of()), is(false));
+    }
+
+    @Test
+    void emptyRulesNeverMatch() {
+        assertThat(PathMatcher.compile(null).isEmpty(), is(true));
+        assertThat(PathMatcher.compile(" , \n").isEmpty(), is(true));
+        assertThat(PathMatcher.compile("").matchesAll(List.of("a")), is(false));
+        assertThat(PathMatcher.compile("a+b(1).txt").matches("a+b(1).txt"), is(true));
+    }
+}
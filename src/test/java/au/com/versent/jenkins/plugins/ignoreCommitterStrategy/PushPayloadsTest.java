@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHEventPayload;
+import org.kohsuke.github.GitHub;
+
+class PushPayloadsTest {
+
+    static final String BEFORE = "6113728f27ae82c7b1a177c8d03f9e96e0adf246";
+    static final String FIRST = "b3c14a9d2f1e6c0e8f4a7d5b9c2e1f0a3b4c5d6e";
+    static final String AFTER = "0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c";
+    static final String REPOSITORY = "example/widgets";
+
+    private final PushPayloads payloads = new PushPayloads(100, 60000);
+
+    /**
+     * @return a push of {@link #AFTER} on top of {@link #BEFORE}
+     */
+    static String fixture() throws IOException {
+        return resource("push.json");
+    }
+
+    /**
+     * @return a push of a merge commit {@link #AFTER} bringing {@link #FIRST} on top of {@link #BEFORE}
+     */
+    static String merge() throws IOException {
+        return resource("merge.json");
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = PushPayloadsTest.class.getResourceAsStream("PushPayloadsTest/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    static GHEventPayload.Push parse(String json) throws IOException {
+        return GitHub.offline().parseEventPayload(new StringReader(json), GHEventPayload.Push.class);
+    }
+
+    @Test
+    void listsTheCommitOfAPush() throws IOException {
+        assertThat(payloads.record(parse(fixture())), is(true));
+        ChangelogContext.Changelog changelog = payloads.lookup(REPOSITORY, "main", BEFORE, AFTER);
+        assertThat(changelog.isComplete(), is(true));
+        List<ChangelogContext.Commit> commits = changelog.getCommits();
+        assertThat(commits.size(), is(1));
+        assertThat(commits.get(0).getId(), is(AFTER));
+        assertThat(commits.get(0).getAuthorEmail(), is("jane@example.com"));
+        assertThat(commits.get(0).getPaths(), contains("docs/widget.md", "README.md"));
+    }
+
+    @Test
+    void onlyAnswersRangesCoveredByPushes() throws IOException {
+        payloads.record(parse(fixture()));
+        assertThat(payloads.lookup(REPOSITORY, "main", FIRST, AFTER), is(nullValue()));
+        assertThat(payloads.lookup(REPOSITORY, "other", BEFORE, AFTER), is(nullValue()));
+        assertThat(payloads.lookup(REPOSITORY, "main", null, AFTER), is(nullValue()));
+
+        // a second push on top of the first one
+        String next = "9e8d7c6b5a4f3e2d1c0b9a8f7e6d5c4b3a2f1e0d";
+        payloads.record(parse(fixture().replace(AFTER, next).replace(BEFORE, AFTER)));
+        List<ChangelogContext.Commit> commits = payloads.lookup(REPOSITORY, "main", BEFORE, next).getCommits();
+        assertThat(commits.size(), is(2));
+        assertThat(commits.get(0).getId(), is(next));
+        assertThat(commits.get(1).getId(), is(AFTER));
+        assertThat(payloads.lookup(REPOSITORY, "main", AFTER, next).getCommits().size(), is(1));
+    }
+
+    @Test
+    void onlyAnswersRangesOfTheSameRepository() throws IOException {
+        payloads.record(parse(fixture()));
+        // a fork with the same branch and commits
+        assertThat(payloads.lookup("fork/widgets", "main", BEFORE, AFTER), is(nullValue()));
+        assertThat(payloads.lookup(null, "main", BEFORE, AFTER), is(nullValue()));
+        assertThat(payloads.lookup(REPOSITORY, "main", BEFORE, AFTER).getCommits().size(), is(1));
+    }
+
+    @Test
+    void namesTheRepositoryOfARemote() {
+        assertThat(PushPayloads.fullName("https://github.com/example/widgets.git"), is(REPOSITORY));
+        assertThat(PushPayloads.fullName("https://github.com/Example/Widgets"), is(REPOSITORY));
+        assertThat(PushPayloads.fullName("git@github.com:example/widgets.git"), is(REPOSITORY));
+        assertThat(PushPayloads.fullName("ssh://git@github.com/example/widgets.git/"), is(REPOSITORY));
+        assertThat(PushPayloads.fullName("widgets"), is(nullValue()));
+    }
+
+    @Test
+    void ignoresPushesThatMayHoldAMerge() throws IOException {
+        // the payload does not tell whether the last commit merges the first one
+        assertThat(payloads.record(parse(merge())), is(false));
+        assertThat(payloads.lookup(REPOSITORY, "main", BEFORE, AFTER), is(nullValue()));
+    }
+
+    @Test
+    void ignoresPayloadsThatMayMissCommits() throws IOException {
+        String json = fixture();
+        assertThat(payloads.record(parse(json.replace("\"forced\": false", "\"forced\": true"))), is(false));
+        assertThat(payloads.record(parse(json.replace("\"created\": false", "\"created\": true"))), is(false));
+        assertThat(payloads.record(parse(json.replace("refs/heads/main", "refs/tags/v1.0"))), is(false));
+        assertThat(payloads.record(parse(json.replace("\"base_ref\": null", "\"size\": 3"))), is(false));
+        assertThat(payloads.size(), is(0));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Walking a whole history in which no commit is decisive with the {@link RevWalkScanner}, to compare with the
+ * {@link ChangelogBenchmark} of the same sizes.
+ */
+@JmhBenchmark
+public class RevWalkBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"10", "1000", "100000"})
+        public int commits;
+
+        @Param({"1", "100", "10000"})
+        public int ignoredAuthors;
+
+        InMemoryRepository repository;
+        ObjectId tip;
+        AuthorMatcher matcher;
+
+        @Setup
+        public void setUp() throws IOException {
+            repository = new InMemoryRepository(new DfsRepositoryDescription("benchmark"));
+            try (ObjectInserter inserter = repository.newObjectInserter()) {
+                ObjectId tree = inserter.insert(new TreeFormatter());
+                for (int i = 0; i < commits; i++) {
+                    PersonIdent author = new PersonIdent("Author " + i, "author" + i + "@example.com");
+                    CommitBuilder commit = new CommitBuilder();
+                    commit.setTreeId(tree);
+                    if (tip != null) {
+                        commit.setParentId(tip);
+                    }
+                    commit.setAuthor(author);
+                    commit.setCommitter(author);
+                    commit.setMessage("commit " + i + "\n");
+                    tip = inserter.insert(commit);
+                }
+                inserter.flush();
+            }
+            matcher = AuthorMatcher.compile(IntStream.range(0, ignoredAuthors)
+                    .mapToObj(i -> "ignored" + i + "@example.com")
+                    .collect(Collectors.joining(",")));
+        }
+
+        @TearDown
+        public void tearDown() {
+            repository.close();
+        }
+    }
+
+    @Benchmark
+    public Boolean revWalk(History history) throws IOException {
+        RevWalkScanner<Boolean> scanner = new RevWalkScanner<>(
+                (commitId, authorEmail, paths) -> history.matcher.matches(authorEmail) ? Boolean.TRUE : null, 0, 0);
+        scanner.scan(history.repository, history.tip, null);
+        return scanner.getDecision();
+    }
+}
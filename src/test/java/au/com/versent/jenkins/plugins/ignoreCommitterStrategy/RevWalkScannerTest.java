@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RevWalkScannerTest {
+
+    private InMemoryRepository repository;
+    private ObjectId base;
+    private ObjectId direct;
+    private ObjectId merge;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            // base - direct ------------ merge
+            //    \                      /
+            //     feature1 --- feature2
+            base = commit(inserter, "dev@example.com", "README.md");
+            direct = commit(inserter, "dev@example.com", "src/Main.java", base);
+            ObjectId feature1 = commit(inserter, "bot@example.com", "docs/a.md", base);
+            ObjectId feature2 = commit(inserter, "bot@example.com", "docs/b.md", feature1);
+            merge = commit(inserter, "merger@example.com", "docs/b.md", direct, feature2);
+            inserter.flush();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * @return a commit whose tree only holds the given file
+     */
+    private static ObjectId commit(ObjectInserter inserter, String email, String path, ObjectId... parents)
+            throws IOException {
+        TreeFormatter tree = new TreeFormatter();
+        ObjectId blob = inserter.insert(Constants.OBJ_BLOB, path.getBytes(StandardCharsets.UTF_8));
+        tree.append(path, FileMode.REGULAR_FILE, blob);
+        PersonIdent author = new PersonIdent(email, email);
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(inserter.insert(tree));
+        commit.setParentIds(parents);
+        commit.setAuthor(author);
+        commit.setCommitter(author);
+        commit.setMessage(path + "\n");
+        return inserter.insert(commit);
+    }
+
+    private List<String> authors(boolean firstParent, boolean skipMerges) throws IOException {
+        List<String> authors = new ArrayList<>();
+        RevWalkScanner<Boolean> scanner = new RevWalkScanner<>(
+                (commitId, authorEmail, paths) -> {
+                    authors.add(authorEmail);
+                    return null;
+                },
+                0,
+                0);
+        if (firstParent) {
+            scanner.firstParent(skipMerges);
+        }
+        scanner.scan(repository, merge, base);
+        return authors;
+    }
+
+    @Test
+    void followsAllParentsWithoutMerges() throws IOException {
+        assertThat(authors(false, true), containsInAnyOrder("dev@example.com", "bot@example.com", "bot@example.com"));
+    }
+
+    @Test
+    void followsFirstParents() throws IOException {
+        assertThat(authors(true, false), contains("merger@example.com", "dev@example.com"));
+        assertThat(authors(true, true), contains("dev@example.com"));
+    }
+
+    @Test
+    void diffsAgainstTheFirstParentOnDemand() throws IOException {
+        List<Collection<String>> changed = new ArrayList<>();
+        RevWalkScanner<Boolean> scanner = new RevWalkScanner<>(
+                (commitId, authorEmail, paths) -> {
+                    changed.add(paths.get());
+                    return null;
+                },
+                0,
+                0);
+        scanner.firstParent(false).scan(repository, merge, base);
+        assertThat(changed.get(0), containsInAnyOrder("docs/b.md", "src/Main.java"));
+        assertThat(changed.get(1), containsInAnyOrder("README.md", "src/Main.java"));
+    }
+
+    @Test
+    void stopsBeforeTheCommitGoingOverTheByteLimit() throws IOException {
+        long mergeSize = repository.open(merge).getSize();
+        List<String> authors = new ArrayList<>();
+        RevWalkScanner<Boolean> scanner = new RevWalkScanner<>(
+                (commitId, authorEmail, paths) -> {
+                    authors.add(authorEmail);
+                    return null;
+                },
+                0,
+                mergeSize + 1);
+        scanner.firstParent(false).scan(repository, merge, base);
+        assertThat(authors, contains("merger@example.com"));
+        assertThat(scanner.getLimitReached(), is(CommitScan.Limit.BYTES));
+        assertThat(scanner.getBytes(), is(mergeSize));
+    }
+
+    @Test
+    void readsTheCommitsFillingTheByteLimit() throws IOException {
+        long size = repository.open(merge).getSize();
+        List<String> authors = new ArrayList<>();
+        RevWalkScanner<Boolean> scanner = new RevWalkScanner<>(
+                (commitId, authorEmail, paths) -> {
+                    authors.add(authorEmail);
+                    return null;
+                },
+                0,
+                size + repository.open(direct).getSize());
+        scanner.firstParent(false).scan(repository, merge, base);
+        assertThat(authors, contains("merger@example.com", "dev@example.com"));
+        assertThat(scanner.getLimitReached(), is(nullValue()));
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import hudson.model.TaskListener;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class RevisionResolverTest {
+
+    private static final String HASH = "0123456789abcdef0123456789abcdef01234567";
+    private static final String BASE = "fedcba9876543210fedcba9876543210fedcba98";
+
+    private static final SCMHead HEAD = new SCMHead("PR-1");
+
+    private static SCMRevision revision(String text) {
+        return new SCMRevision(HEAD) {
+            @Override
+            public boolean equals(Object o) {
+                return o == this;
+            }
+
+            @Override
+            public int hashCode() {
+                return text.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return text;
+            }
+        };
+    }
+
+    @Test
+    void findsTheFirstCommitOfATextualRevision() {
+        assertThat(RevisionResolver.candidate(HASH + "+" + BASE), is(HASH));
+        assertThat(RevisionResolver.candidate("PR-1 at 0123456 onto " + BASE), is("0123456"));
+        assertThat(RevisionResolver.candidate("deed"), nullValue());
+        assertThat(RevisionResolver.candidate(HASH + "00"), nullValue());
+    }
+
+    @Test
+    void resolvesFullHashesWithoutTheSource() throws Exception {
+        RevisionResolver resolver = new RevisionResolver(10, 60_000);
+        SCMSource source = Mockito.mock(SCMSource.class);
+        Mockito.when(source.getId()).thenReturn("source");
+
+        SCMRevision git = new AbstractGitSCMSource.SCMRevisionImpl(HEAD, HASH);
+        assertThat(resolver.resolve(source, git, TaskListener.NULL), is(HASH));
+        // merge revisions of change requests start with their head commit
+        assertThat(resolver.resolve(source, revision(HASH + "+" + BASE + " (merge)"), TaskListener.NULL), is(HASH));
+        assertThat(resolver.resolve(source, revision("merge of " + BASE), TaskListener.NULL), is(BASE));
+        assertThat(resolver.resolve(source, revision("deed"), TaskListener.NULL), nullValue());
+        Mockito.verifyNoMoreInteractions(Mockito.ignoreStubs(source));
+        assertThat(resolver.size(), is(2));
+    }
+
+    @Test
+    void resolvesChangeRequestsByType() throws Exception {
+        RevisionResolver resolver = new RevisionResolver(10, 60_000);
+        SCMSource source = Mockito.mock(SCMSource.class);
+        PullRequestHead head = new PullRequestHead();
+        SCMRevision target = new AbstractGitSCMSource.SCMRevisionImpl(head.getTarget(), BASE);
+
+        // neither string form starts with the commit of the head
+        assertThat(resolver.resolve(source, new GitHubLikeRevision(head, target, HASH), TaskListener.NULL), is(HASH));
+        SCMRevision origin = new AbstractGitSCMSource.SCMRevisionImpl(head, HASH);
+        assertThat(resolver.resolve(source, new GitLabLikeRevision(head, target, origin), TaskListener.NULL), is(HASH));
+        Mockito.verifyNoInteractions(source);
+        assertThat(resolver.size(), is(0));
+    }
+
+    @Test
+    void resolvesEachRevisionOnceWhileInFlight() throws Exception {
+        // nothing is kept, only the resolution in flight is shared
+        RevisionResolver resolver = new RevisionResolver(0, 60_000);
+        SCMSource source = Mockito.mock(SCMSource.class);
+        Mockito.when(source.getId()).thenReturn("source");
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(source.fetch(Mockito.eq("0123456"), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    fetching.countDown();
+                    release.await();
+                    return new AbstractGitSCMSource.SCMRevisionImpl(HEAD, HASH);
+                });
+        SCMRevision abbreviated = revision("PR-1 at 0123456");
+
+        FutureTask<String> first = new FutureTask<>(() -> resolver.resolve(source, abbreviated, TaskListener.NULL));
+        new Thread(first).start();
+        fetching.await();
+        FutureTask<String> second = new FutureTask<>(() -> resolver.resolve(source, abbreviated, TaskListener.NULL));
+        Thread waiting = new Thread(second);
+        waiting.start();
+        while (waiting.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(first.get(), is(HASH));
+        assertThat(second.get(), is(HASH));
+        Mockito.verify(source, Mockito.times(1)).fetch(Mockito.eq("0123456"), Mockito.any(), Mockito.any());
+    }
+
+    private static final class PullRequestHead extends SCMHead implements ChangeRequestSCMHead {
+
+        PullRequestHead() {
+            super("PR-1");
+        }
+
+        @Override
+        public String getId() {
+            return "1";
+        }
+
+        @Override
+        public SCMHead getTarget() {
+            return new SCMHead("main");
+        }
+    }
+
+    /**
+     * Exposes the commit of its head like the revisions of the GitHub plugin.
+     */
+    public static final class GitHubLikeRevision extends ChangeRequestSCMRevision<PullRequestHead> {
+
+        private final String pullHash;
+
+        GitHubLikeRevision(PullRequestHead head, SCMRevision target, String pullHash) {
+            super(head, target);
+            this.pullHash = pullHash;
+        }
+
+        public String getPullHash() {
+            return pullHash;
+        }
+
+        @Override
+        public boolean equivalent(ChangeRequestSCMRevision<?> revision) {
+            return revision instanceof GitHubLikeRevision && pullHash.equals(((GitHubLikeRevision) revision).pullHash);
+        }
+
+        @Override
+        protected int _hashCode() {
+            return pullHash.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "PR-1";
+        }
+    }
+
+    /**
+     * Exposes the revision of its head like the revisions of the GitLab and Gitea plugins.
+     */
+    public static final class GitLabLikeRevision extends ChangeRequestSCMRevision<PullRequestHead> {
+
+        private final SCMRevision origin;
+
+        GitLabLikeRevision(PullRequestHead head, SCMRevision target, SCMRevision origin) {
+            super(head, target);
+            this.origin = origin;
+        }
+
+        public SCMRevision getOrigin() {
+            return origin;
+        }
+
+        @Override
+        public boolean equivalent(ChangeRequestSCMRevision<?> revision) {
+            return revision instanceof GitLabLikeRevision && origin.equals(((GitLabLikeRevision) revision).origin);
+        }
+
+        @Override
+        protected int _hashCode() {
+            return origin.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "MR-1";
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Versent
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package au.com.versent.jenkins.plugins.ignoreCommitterStrategy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WhatIfSimulationTest {
+
+    private InMemoryRepository repository;
+    private final List<ObjectId> commits = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId tree = inserter.insert(new TreeFormatter());
+            ObjectId parent = null;
+            List<String> authors =
+                    Arrays.asList("bot@example.com", "bot@example.com", "dev@example.com", "bot@example.com");
+            for (String email : authors) {
+                PersonIdent author = new PersonIdent(email, email);
+                CommitBuilder commit = new CommitBuilder();
+                commit.setTreeId(tree);
+                if (parent != null) {
+                    commit.setParentId(parent);
+                }
+                commit.setAuthor(author);
+                commit.setCommitter(author);
+                commit.setMessage(email + "\n");
+                parent = inserter.insert(commit);
+                commits.add(parent);
+            }
+            inserter.flush();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    private WhatIfSimulation.Push push(String branch, int before, int after) {
+        return new WhatIfSimulation.Push(branch, commits.get(before), commits.get(after));
+    }
+
+    private static List<Boolean> builds(List<WhatIfSimulation.Outcome> outcomes) {
+        List<Boolean> builds = new ArrayList<>();
+        for (WhatIfSimulation.Outcome outcome : outcomes) {
+            builds.add(outcome.getBuild());
+        }
+        return builds;
+    }
+
+    @Test
+    void replaysEveryPushWithOneWalk() throws IOException {
+        WhatIfSimulation simulation = new WhatIfSimulation(new IgnoreCommitterStrategy("bot@example.com", true));
+        WhatIfSimulation.Report report = simulation.run(
+                repository,
+                Arrays.asList(push("main", 0, 1), push("main", 1, 2), push("main", 2, 3), push("feature", 0, 3)));
+
+        assertThat(builds(report.getOutcomes("main")), contains(false, true, false));
+        assertThat(builds(report.getOutcomes("feature")), contains(true));
+        assertThat(report.count(true), is(2));
+        assertThat(report.count(false), is(2));
+        // the feature range spans commits already matched for main
+        assertThat(report.getMatched(), is(3));
+    }
+
+    @Test
+    void reportsMissingCommits() throws IOException {
+        ObjectId missing = ObjectId.fromString("1234567890123456789012345678901234567890");
+        WhatIfSimulation.Report report = new WhatIfSimulation(new IgnoreCommitterStrategy("bot@example.com", true))
+                .run(repository, Arrays.asList(new WhatIfSimulation.Push("gone", commits.get(0), missing)));
+
+        WhatIfSimulation.Outcome outcome = report.getOutcomes("gone").get(0);
+        assertThat(outcome.getBuild(), nullValue());
+        assertThat(outcome.getReason(), startsWith("Commit " + missing.name()));
+        assertThat(report.count(null), is(1));
+    }
+}